@@ -0,0 +1,149 @@
+package com.cts.processPension.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Compares a JMH JSON result with the committed baseline and fails when a
+ * benchmark lost more throughput, or allocates more per operation, than the
+ * given tolerance. It also fails when the comparison would not mean anything:
+ * <ul>
+ * <li>a benchmark has no baseline,</li>
+ * <li>the run used other forks, iterations or iteration times than the
+ * baseline,</li>
+ * <li>a baseline score has an error above the tolerance.</li>
+ * </ul>
+ * Baseline benchmarks that were not run, e.g. with an include filter, are
+ * only reported.
+ *
+ * Arguments: baseline file, result file, tolerance (0.20 = 20%). To accept a
+ * new baseline run with --record result file, baseline file, which copies the
+ * result without the machine specific JVM path.
+ *
+ */
+public class BaselineCheck {
+
+	private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+	// allocation differences below this many bytes per operation are noise
+	private static final double ALLOCATION_SLACK = 16;
+
+	private static final List<String> SETTINGS = Arrays.asList("forks", "threads", "warmupIterations", "warmupTime",
+			"measurementIterations", "measurementTime");
+
+	public static void main(String[] args) throws IOException {
+		if ("--record".equals(args[0])) {
+			record(new File(args[1]), new File(args[2]));
+			return;
+		}
+		File baselineFile = new File(args[0]);
+		File resultFile = new File(args[1]);
+		double tolerance = Double.parseDouble(args[2]);
+		if (!baselineFile.exists()) {
+			System.out.println("No baseline at " + baselineFile + ", record " + resultFile + " to create one");
+			return;
+		}
+
+		Map<String, JsonNode> baseline = read(baselineFile);
+		Map<String, JsonNode> result = read(resultFile);
+		int failures = 0;
+		for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+			JsonNode before = baseline.get(entry.getKey());
+			if (before == null) {
+				System.out.printf("NEW   %s has no baseline%n", entry.getKey());
+				failures++;
+				continue;
+			}
+			String settings = differentSettings(before, entry.getValue());
+			if (settings != null) {
+				System.out.printf("FAIL  %s: run with other settings than the baseline, %s%n", entry.getKey(),
+						settings);
+				failures++;
+				continue;
+			}
+			double scoreBefore = before.path("primaryMetric").path("score").asDouble();
+			double errorBefore = before.path("primaryMetric").path("scoreError").asDouble();
+			if (Double.isNaN(errorBefore) || errorBefore > scoreBefore * tolerance) {
+				System.out.printf("NOISY %s: baseline %.3f ± %.3f ops/us is not precise enough to compare%n",
+						entry.getKey(), scoreBefore, errorBefore);
+				failures++;
+				continue;
+			}
+			double scoreAfter = entry.getValue().path("primaryMetric").path("score").asDouble();
+			double allocBefore = allocation(before);
+			double allocAfter = allocation(entry.getValue());
+			boolean slower = scoreAfter < scoreBefore * (1 - tolerance);
+			boolean allocates = allocAfter > allocBefore * (1 + tolerance) + ALLOCATION_SLACK;
+			if (slower || allocates) {
+				failures++;
+			}
+			System.out.printf("%-5s %s: %.3f -> %.3f ops/us, %.1f -> %.1f B/op%n", slower || allocates ? "FAIL" : "OK",
+					entry.getKey(), scoreBefore, scoreAfter, allocBefore, allocAfter);
+		}
+		for (String benchmark : baseline.keySet()) {
+			if (!result.containsKey(benchmark)) {
+				System.out.printf("SKIP  %s was not run%n", benchmark);
+			}
+		}
+		if (failures > 0) {
+			System.out.println(failures + " benchmark(s) regressed beyond " + tolerance * 100
+					+ "% or could not be compared with the baseline");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Copy a result as the new baseline, without the path of the JVM that ran it
+	 */
+	private static void record(File resultFile, File baselineFile) throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper();
+		ArrayNode benchmarks = (ArrayNode) objectMapper.readTree(resultFile);
+		benchmarks.forEach(benchmark -> ((ObjectNode) benchmark).remove("jvm"));
+		objectMapper.writerWithDefaultPrettyPrinter().writeValue(baselineFile, benchmarks);
+		System.out.println("Recorded " + benchmarks.size() + " benchmark(s) in " + baselineFile);
+	}
+
+	/**
+	 * @return the settings differing between the runs, or null if they match
+	 */
+	private static String differentSettings(JsonNode before, JsonNode after) {
+		StringBuilder differences = new StringBuilder();
+		for (String setting : SETTINGS) {
+			if (!before.path(setting).equals(after.path(setting))) {
+				differences.append(differences.length() == 0 ? "" : ", ").append(setting).append(' ')
+						.append(before.path(setting).asText()).append(" -> ").append(after.path(setting).asText());
+			}
+		}
+		return differences.length() == 0 ? null : differences.toString();
+	}
+
+	/**
+	 * Results keyed by benchmark name and parameters
+	 */
+	private static Map<String, JsonNode> read(File file) throws IOException {
+		Map<String, JsonNode> results = new LinkedHashMap<>();
+		for (JsonNode benchmark : new ObjectMapper().readTree(file)) {
+			Map<String, String> params = new TreeMap<>();
+			benchmark.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+			results.put(benchmark.path("benchmark").asText() + (params.isEmpty() ? "" : params.toString()), benchmark);
+		}
+		return results;
+	}
+
+	private static double allocation(JsonNode benchmark) {
+		JsonNode secondaryMetrics = benchmark.path("secondaryMetrics");
+		JsonNode metric = secondaryMetrics.has(ALLOCATION) ? secondaryMetrics.get(ALLOCATION)
+				: secondaryMetrics.path("·" + ALLOCATION);
+		return metric.path("score").asDouble();
+	}
+}
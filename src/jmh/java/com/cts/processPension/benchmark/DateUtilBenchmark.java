@@ -0,0 +1,37 @@
+package com.cts.processPension.benchmark;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.cts.processPension.util.DateUtil;
+
+/**
+ * Benchmark of the date parsing and formatting utility
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DateUtilBenchmark {
+
+	private String date = "1999-09-14";
+
+	private LocalDate localDate = LocalDate.of(1999, 9, 14);
+
+	@Benchmark
+	public LocalDate parseDate() {
+		return DateUtil.parseDate(date);
+	}
+
+	@Benchmark
+	public String formatDisplay() {
+		return DateUtil.formatDisplay(localDate);
+	}
+}
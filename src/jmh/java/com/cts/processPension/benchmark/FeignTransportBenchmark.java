@@ -0,0 +1,134 @@
+package com.cts.processPension.benchmark;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cts.processPension.feign.HttpClientSettings;
+import com.cts.processPension.feign.PooledClientConfiguration;
+import com.cts.processPension.feign.TimedConnectionManager;
+import com.sun.net.httpserver.HttpServer;
+
+import ch.qos.logback.classic.Level;
+
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares the default Feign transport (HttpURLConnection) with the pooled
+ * keep-alive transport of {@link PooledClientConfiguration} against a local
+ * stub of the pensioner detail service, so the result only depends on the
+ * transport. The stub answers after a fixed latency and counts the
+ * connections each transport opens: HttpURLConnection keeps at most
+ * http.maxConnections (5) idle connections per host, so under concurrency it
+ * keeps opening new ones, which the pool avoids.
+ *
+ * Not a JMH benchmark, compiled with the benchmark profile only. Run after
+ * mvn -Pbenchmark test-compile, for example:
+ * java -cp target/classes:target/test-classes:<dependency classpath>
+ * -Dbenchmark.requests=50000 -Dbenchmark.threads=32 -Dbenchmark.latencyMs=10
+ * com.cts.processPension.benchmark.FeignTransportBenchmark
+ *
+ */
+public class FeignTransportBenchmark {
+
+	private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+
+	private static final int THREADS = Integer.getInteger("benchmark.threads", 32);
+
+	private static final int LATENCY_MS = Integer.getInteger("benchmark.latencyMs", 10);
+
+	private static final Set<Integer> CONNECTIONS = ConcurrentHashMap.newKeySet();
+
+	private static final byte[] PENSIONER = ("{\"name\":\"Vishnu\",\"dateOfBirth\":\"1999-09-14\",\"pan\":\"BRPPV3218K\","
+			+ "\"salary\":100000,\"allowance\":10000,\"pensionType\":\"self\",\"aadhaarNumber\":\"123456789017\","
+			+ "\"bank\":{\"bankName\":\"SBI\",\"accountNumber\":456682,\"bankType\":\"public\"}}")
+			.getBytes(StandardCharsets.UTF_8);
+
+	interface PensionerDetailStub {
+		@RequestLine("GET /pensionerDetailByAadhaar/{aadhaarNumber}")
+		String getPensionerDetailByAadhaar(@Param("aadhaarNumber") String aadhaarNumber);
+	}
+
+	public static void main(String[] args) throws Exception {
+		// without Spring Boot logback logs everything at DEBUG, the application runs at INFO
+		((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+		// otherwise the stub's separate header and body writes wait for delayed ACKs
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		server.createContext("/pensionerDetailByAadhaar", exchange -> {
+			CONNECTIONS.add(exchange.getRemoteAddress().getPort());
+			try {
+				Thread.sleep(LATENCY_MS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, PENSIONER.length);
+			exchange.getResponseBody().write(PENSIONER);
+			exchange.close();
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+		String url = "http://localhost:" + server.getAddress().getPort();
+		try {
+			run("default (HttpURLConnection)", new Client.Default(null, null), url);
+
+			HttpClientSettings settings = new HttpClientSettings();
+			settings.setMaxConnections(THREADS);
+			settings.setMaxConnectionsPerRoute(THREADS);
+			TimedConnectionManager connectionManager = PooledClientConfiguration.createConnectionManager(settings,
+					new SimpleMeterRegistry().timer("acquire"));
+			try (CloseableHttpClient httpClient = PooledClientConfiguration.createHttpClient(settings,
+					connectionManager)) {
+				run("pooled keep-alive", new ApacheHttpClient(httpClient), url);
+			}
+		} finally {
+			server.stop(0);
+			((ExecutorService) server.getExecutor()).shutdownNow();
+		}
+	}
+
+	private static void run(String name, Client client, String url) throws Exception {
+		PensionerDetailStub stub = Feign.builder().client(client).target(PensionerDetailStub.class, url);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		// warm up
+		submitAll(executor, stub, Math.min(REQUESTS, 2000));
+
+		CONNECTIONS.clear();
+		long start = System.nanoTime();
+		submitAll(executor, stub, REQUESTS);
+		long elapsedNanos = System.nanoTime() - start;
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+
+		double seconds = elapsedNanos / 1e9;
+		System.out.printf("%-30s %8d requests in %7.2f s = %10.1f requests/s, %6d connections opened%n", name,
+				REQUESTS, seconds, REQUESTS / seconds, CONNECTIONS.size());
+	}
+
+	private static void submitAll(ExecutorService executor, PensionerDetailStub stub, int requests) throws Exception {
+		List<Future<?>> futures = new ArrayList<>(requests);
+		for (int i = 0; i < requests; i++) {
+			futures.add(executor.submit(() -> stub.getPensionerDetailByAadhaar("123456789017")));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.cts.processPension.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.util.DateUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Benchmark of the JSON handled on every request: the PensionDetail response
+ * with its dd/MM/yyyy date and the PensionerDetail returned by the pensioner
+ * detail micro-service with its nested Bank
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonBenchmark {
+
+	private static final String PENSIONER_DETAIL_JSON = "{\"name\":\"Vishnu\",\"aadhaarNumber\":\"123456789011\","
+			+ "\"dateOfBirth\":\"1999-09-14\",\"pan\":\"BRPPV3218K\",\"salary\":100000.0,\"allowance\":10000.0,"
+			+ "\"pensionType\":\"self\",\"accountNumber\":456678,"
+			+ "\"bank\":{\"bankName\":\"SBI\",\"accountNumber\":456678,\"bankType\":\"public\"}}";
+
+	private ObjectMapper objectMapper;
+
+	private PensionDetail pensionDetail;
+
+	@Setup
+	public void setUp() {
+		// same defaults as the ObjectMapper configured by Spring Boot
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+		pensionDetail = new PensionDetail("Vishnu", DateUtil.parseDate("1999-09-14"), "BRPPV3218K", "self", 89500);
+	}
+
+	@Benchmark
+	public String serializePensionDetail() throws JsonProcessingException {
+		return objectMapper.writeValueAsString(pensionDetail);
+	}
+
+	@Benchmark
+	public PensionerDetail deserializePensionerDetail() throws JsonProcessingException {
+		return objectMapper.readValue(PENSIONER_DETAIL_JSON, PensionerDetail.class);
+	}
+}
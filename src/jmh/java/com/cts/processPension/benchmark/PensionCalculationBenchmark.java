@@ -0,0 +1,53 @@
+package com.cts.processPension.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.rule.PensionRuleEngine;
+import com.cts.processPension.service.ProcessPensionServiceImpl;
+import com.cts.processPension.util.DateUtil;
+
+/**
+ * Benchmark of the pension calculation for every pension type and bank type
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PensionCalculationBenchmark {
+
+	@Param({ "self", "family" })
+	private String pensionType;
+
+	@Param({ "public", "private" })
+	private String bankType;
+
+	private ProcessPensionServiceImpl processPensionService;
+
+	private PensionerDetail pensionerDetail;
+
+	@Setup
+	public void setUp() {
+		processPensionService = new ProcessPensionServiceImpl();
+		ReflectionTestUtils.setField(processPensionService, "pensionRuleEngine", new PensionRuleEngine());
+		pensionerDetail = new PensionerDetail("Vishnu", "123456789011", DateUtil.parseDate("1999-09-14"),
+				"BRPPV3218K", 100000, 10000, pensionType, 456678, new Bank("SBI", 456678, bankType));
+	}
+
+	@Benchmark
+	public PensionDetail calculatePensionAmount() {
+		return processPensionService.calculatePensionAmount(pensionerDetail);
+	}
+}
@@ -0,0 +1,75 @@
+package com.cts.processPension.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.cts.processPension.util.VirtualThreads;
+
+/**
+ * Compares the platform thread pool with virtual threads for the blocking
+ * request shape of /processPension: two sequential remote calls per request.
+ * The remote calls are simulated with a fixed latency so the result only
+ * depends on the thread model.
+ *
+ * Not a JMH benchmark, compiled with the benchmark profile only. Run after
+ * mvn -Pbenchmark test-compile with a Java 21 runtime, for example:
+ * java -cp target/classes:target/test-classes
+ * -Dbenchmark.requests=20000 -Dbenchmark.latencyMs=50
+ * com.cts.processPension.benchmark.ThreadModelBenchmark
+ *
+ */
+public class ThreadModelBenchmark {
+
+	private static final int REQUESTS = Integer.getInteger("benchmark.requests", 10000);
+
+	private static final int LATENCY_MS = Integer.getInteger("benchmark.latencyMs", 50);
+
+	// Tomcat's default server.tomcat.threads.max
+	private static final int POOL_SIZE = Integer.getInteger("benchmark.poolSize", 200);
+
+	public static void main(String[] args) throws Exception {
+		run("platform pool of " + POOL_SIZE, Executors.newFixedThreadPool(POOL_SIZE));
+		if (VirtualThreads.isSupported()) {
+			run("virtual threads", VirtualThreads.newVirtualThreadPerTaskExecutor());
+		} else {
+			System.out.println("Virtual threads need a Java 21 runtime, running on " + Runtime.version());
+		}
+	}
+
+	private static void run(String name, ExecutorService executor) throws Exception {
+		// warm up
+		submitAll(executor, Math.min(REQUESTS, 1000));
+
+		long start = System.nanoTime();
+		submitAll(executor, REQUESTS);
+		long elapsedNanos = System.nanoTime() - start;
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+
+		double seconds = elapsedNanos / 1e9;
+		System.out.printf("%-25s %8d requests in %7.2f s = %10.1f requests/s%n", name, REQUESTS, seconds,
+				REQUESTS / seconds);
+	}
+
+	private static void submitAll(ExecutorService executor, int requests) throws Exception {
+		List<Future<?>> futures = new ArrayList<>(requests);
+		for (int i = 0; i < requests; i++) {
+			futures.add(executor.submit(() -> {
+				remoteCall(); // AuthorisationClient.validate
+				remoteCall(); // PensionerDetailsClient.getPensionerDetailByAadhaar
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+	}
+
+	private static void remoteCall() throws InterruptedException {
+		Thread.sleep(LATENCY_MS);
+	}
+}
@@ -0,0 +1,77 @@
+package com.cts.processPension.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered writer on a file channel. The file is truncated to the given start
+ * position, so a resumed job drops whatever was written after its last
+ * checkpoint.
+ *
+ */
+public class ChannelWriter implements Closeable {
+
+	private final FileChannel channel;
+
+	private final ByteBuffer buffer;
+
+	public ChannelWriter(Path file, long startPosition, int bufferSize) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		channel.truncate(startPosition);
+		channel.position(startPosition);
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	public void write(String text) throws IOException {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > buffer.remaining()) {
+			flushBuffer();
+		}
+		if (bytes.length > buffer.capacity()) {
+			writeFully(ByteBuffer.wrap(bytes));
+		} else {
+			buffer.put(bytes);
+		}
+	}
+
+	/**
+	 * Write the buffer and force the file content to the storage device
+	 */
+	public void sync() throws IOException {
+		flushBuffer();
+		channel.force(false);
+	}
+
+	/**
+	 * @return size of the output including buffered bytes
+	 */
+	public long position() throws IOException {
+		return channel.position() + buffer.position();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flushBuffer();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	private void writeFully(ByteBuffer bytes) throws IOException {
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+	}
+}
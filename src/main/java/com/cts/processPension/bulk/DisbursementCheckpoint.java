@@ -0,0 +1,25 @@
+package com.cts.processPension.bulk;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of a disbursement job after its last completed chunk: every input
+ * line before inputPosition is written to the output before outputPosition.
+ * The input size and modification time identify the input the job was
+ * started with.
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class DisbursementCheckpoint {
+
+	private long inputSize;
+	private long inputModified;
+	private long inputPosition;
+	private long outputPosition;
+	private long processed;
+	private long failed;
+}
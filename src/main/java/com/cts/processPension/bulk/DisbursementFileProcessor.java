@@ -0,0 +1,308 @@
+package com.cts.processPension.bulk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.cts.processPension.cache.PensionAmountStore;
+import com.cts.processPension.cache.PensionerDetailCache;
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.util.DateUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns a file of aadhaar numbers (CSV with the aadhaar number in the first
+ * column, or JSON lines with an aadhaarNumber field) into a disbursement file
+ * (CSV, or JSON lines when the output ends with .jsonl).
+ *
+ * Both files are streamed: the input is read through a memory-mapped window
+ * and the output written through a buffered channel. Lines are processed in
+ * chunks, several chunks at a time, and written in input order. After every
+ * written chunk a checkpoint is saved next to the output; a job started again
+ * on the same input resumes from it.
+ *
+ */
+@Component
+@Slf4j
+public class DisbursementFileProcessor {
+
+	private static final String CSV_HEADER = "aadhaarNumber,name,dateOfBirth,pan,pensionType,pensionAmount,"
+			+ "bankServiceCharge,totalAmount,errorMessage\n";
+
+	@Autowired
+	private PensionerDetailCache pensionerDetailCache;
+
+	@Autowired
+	private PensionAmountStore pensionAmountStore;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	@Qualifier("disbursementLookupExecutor")
+	private Executor disbursementLookupExecutor;
+
+	@Value("${pension.bulk.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${pension.bulk.parallelism:4}")
+	private int parallelism;
+
+	@Value("${pension.bulk.read-window:16777216}")
+	private int readWindow;
+
+	@Value("${pension.bulk.write-buffer:65536}")
+	private int writeBuffer;
+
+	/**
+	 * Process the input file into the output file, resuming from the checkpoint
+	 * of an earlier run on the same input if there is one
+	 *
+	 * @param input  CSV or JSON lines file of aadhaar numbers
+	 * @param output disbursement file to write
+	 * @return progress of the finished job
+	 */
+	public DisbursementCheckpoint process(Path input, Path output) throws IOException {
+		Path checkpointFile = checkpointPath(output);
+		DisbursementCheckpoint checkpoint = readCheckpoint(input, checkpointFile);
+		boolean resumed = checkpoint.getInputPosition() > 0;
+		boolean jsonInput = isJsonLines(input);
+		boolean jsonOutput = isJsonLines(output);
+		if (resumed) {
+			log.info("Resuming {} at byte {} after {} records", input, checkpoint.getInputPosition(),
+					checkpoint.getProcessed());
+		}
+
+		ExecutorService chunkExecutor = Executors.newFixedThreadPool(parallelism,
+				new CustomizableThreadFactory("disbursement-"));
+		try (MappedLineReader reader = new MappedLineReader(input, checkpoint.getInputPosition(), readWindow);
+				ChannelWriter writer = new ChannelWriter(output, checkpoint.getOutputPosition(), writeBuffer)) {
+			if (!resumed && !jsonOutput) {
+				writer.write(CSV_HEADER);
+			}
+			Deque<PendingChunk> pending = new ArrayDeque<>();
+			List<String> chunk;
+			while (!(chunk = readChunk(reader, jsonInput)).isEmpty()) {
+				List<String> lines = chunk;
+				pending.add(new PendingChunk(chunkExecutor.submit(() -> processChunk(lines)), reader.position()));
+				if (pending.size() >= parallelism) {
+					commit(pending.poll(), writer, jsonOutput, checkpoint, checkpointFile);
+				}
+			}
+			while (!pending.isEmpty()) {
+				commit(pending.poll(), writer, jsonOutput, checkpoint, checkpointFile);
+			}
+			writer.sync();
+		} finally {
+			chunkExecutor.shutdownNow();
+		}
+		Files.deleteIfExists(checkpointFile);
+		log.info("Disbursement file {} written: {} records, {} failed", output, checkpoint.getProcessed(),
+				checkpoint.getFailed());
+		return checkpoint;
+	}
+
+	static Path checkpointPath(Path output) {
+		return output.resolveSibling(output.getFileName() + ".checkpoint");
+	}
+
+	/**
+	 * Next chunk of aadhaar numbers, blank lines and a CSV header are skipped
+	 */
+	private List<String> readChunk(MappedLineReader reader, boolean jsonInput) throws IOException {
+		List<String> chunk = new ArrayList<>(chunkSize);
+		String line;
+		while (chunk.size() < chunkSize && (line = reader.readLine()) != null) {
+			if (line.isBlank()) {
+				continue;
+			}
+			String aadhaarNumber = jsonInput ? readJsonLine(line) : readCsvLine(line);
+			if (aadhaarNumber != null) {
+				chunk.add(aadhaarNumber);
+			}
+		}
+		return chunk;
+	}
+
+	private String readJsonLine(String line) {
+		try {
+			PensionerInput pensionerInput = objectMapper.readValue(line, PensionerInput.class);
+			return pensionerInput.getAadhaarNumber() == null ? "" : pensionerInput.getAadhaarNumber();
+		} catch (JsonProcessingException e) {
+			return line.trim();
+		}
+	}
+
+	private static String readCsvLine(String line) {
+		int comma = line.indexOf(',');
+		String aadhaarNumber = (comma < 0 ? line : line.substring(0, comma)).replace("\"", "").trim();
+		return aadhaarNumber.toLowerCase(Locale.ROOT).startsWith("aadhaar") ? null : aadhaarNumber;
+	}
+
+	/**
+	 * Pension details of one chunk, one record per aadhaar number in input order
+	 */
+	private List<DisbursementRecord> processChunk(List<String> aadhaarNumbers) {
+		Map<String, String> errors = new HashMap<>();
+		Set<String> valid = new LinkedHashSet<>();
+		for (String aadhaarNumber : aadhaarNumbers) {
+			Set<ConstraintViolation<PensionerInput>> violations = validator.validate(new PensionerInput(aadhaarNumber));
+			if (violations.isEmpty()) {
+				valid.add(aadhaarNumber);
+			} else {
+				errors.put(aadhaarNumber, violations.iterator().next().getMessage());
+			}
+		}
+
+		Map<String, PensionerDetail> found = new LinkedHashMap<>();
+		// a bulk job has no caller token to ask the owning instances with
+		pensionerDetailCache.getAll(valid, null, disbursementLookupExecutor).forEach((aadhaarNumber, lookup) -> {
+			try {
+				PensionerDetail pensionerDetail = lookup.join();
+				if (pensionerDetail.getAadhaarNumber() == null) {
+					errors.put(aadhaarNumber, "Details entered are incorrect");
+				} else {
+					found.put(aadhaarNumber, pensionerDetail);
+				}
+			} catch (CompletionException e) {
+				errors.put(aadhaarNumber, e.getCause().getMessage());
+			}
+		});
+		Map<String, PensionAmountDetail> amounts = pensionAmountStore.getAll(found.values());
+
+		List<DisbursementRecord> records = new ArrayList<>(aadhaarNumbers.size());
+		for (String aadhaarNumber : aadhaarNumbers) {
+			PensionerDetail pensionerDetail = found.get(aadhaarNumber);
+			if (pensionerDetail == null) {
+				records.add(DisbursementRecord.error(aadhaarNumber, errors.get(aadhaarNumber)));
+				continue;
+			}
+			PensionAmountDetail amount = amounts.get(aadhaarNumber);
+			records.add(new DisbursementRecord(aadhaarNumber, pensionerDetail.getName(),
+					pensionerDetail.getDateOfBirth(), pensionerDetail.getPan(), pensionerDetail.getPensionType(),
+					amount.getPensionAmount(), amount.getBankServiceCharge(), amount.getTotalAmount(), null));
+		}
+		return records;
+	}
+
+	/**
+	 * Write a processed chunk and save the checkpoint after it
+	 */
+	private void commit(PendingChunk pendingChunk, ChannelWriter writer, boolean jsonOutput,
+			DisbursementCheckpoint checkpoint, Path checkpointFile) throws IOException {
+		List<DisbursementRecord> records;
+		try {
+			records = pendingChunk.records.get();
+		} catch (ExecutionException e) {
+			throw new IOException("Disbursement chunk failed, resume from " + checkpointFile, e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Disbursement job interrupted, resume from " + checkpointFile, e);
+		}
+		for (DisbursementRecord record : records) {
+			writer.write(jsonOutput ? objectMapper.writeValueAsString(record) + "\n" : toCsv(record));
+			if (record.getErrorMessage() != null) {
+				checkpoint.setFailed(checkpoint.getFailed() + 1);
+			}
+		}
+		writer.sync();
+		checkpoint.setProcessed(checkpoint.getProcessed() + records.size());
+		checkpoint.setInputPosition(pendingChunk.inputPosition);
+		checkpoint.setOutputPosition(writer.position());
+		writeCheckpoint(checkpoint, checkpointFile);
+	}
+
+	private DisbursementCheckpoint readCheckpoint(Path input, Path checkpointFile) throws IOException {
+		long inputSize = Files.size(input);
+		long inputModified = Files.getLastModifiedTime(input).toMillis();
+		if (Files.exists(checkpointFile)) {
+			DisbursementCheckpoint checkpoint = objectMapper.readValue(checkpointFile.toFile(),
+					DisbursementCheckpoint.class);
+			if (checkpoint.getInputSize() != inputSize || checkpoint.getInputModified() != inputModified) {
+				throw new IllegalStateException(
+						input + " changed since " + checkpointFile + " was written, delete the checkpoint to start over");
+			}
+			return checkpoint;
+		}
+		DisbursementCheckpoint checkpoint = new DisbursementCheckpoint();
+		checkpoint.setInputSize(inputSize);
+		checkpoint.setInputModified(inputModified);
+		return checkpoint;
+	}
+
+	private void writeCheckpoint(DisbursementCheckpoint checkpoint, Path checkpointFile) throws IOException {
+		Path temporary = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+		Files.write(temporary, objectMapper.writeValueAsBytes(checkpoint));
+		Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private static String toCsv(DisbursementRecord record) {
+		return String.join(",", csv(record.getAadhaarNumber()), csv(record.getName()),
+				record.getDateOfBirth() == null ? "" : DateUtil.formatDisplay(record.getDateOfBirth()), csv(record.getPan()),
+				csv(record.getPensionType()), csv(record.getPensionAmount()), csv(record.getBankServiceCharge()),
+				csv(record.getTotalAmount()), csv(record.getErrorMessage())) + "\n";
+	}
+
+	private static String csv(Object value) {
+		if (value == null) {
+			return "";
+		}
+		String text = value.toString();
+		if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0) {
+			return text;
+		}
+		return '"' + text.replace("\"", "\"\"") + '"';
+	}
+
+	private static boolean isJsonLines(Path file) {
+		String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+		return name.endsWith(".jsonl") || name.endsWith(".ndjson");
+	}
+
+	private static class PendingChunk {
+
+		private final Future<List<DisbursementRecord>> records;
+
+		private final long inputPosition;
+
+		PendingChunk(Future<List<DisbursementRecord>> records, long inputPosition) {
+			this.records = records;
+			this.inputPosition = inputPosition;
+		}
+	}
+}
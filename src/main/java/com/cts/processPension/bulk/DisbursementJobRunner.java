@@ -0,0 +1,41 @@
+package com.cts.processPension.bulk;
+
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a disbursement job at startup when pension.bulk.input is set, e.g.
+ * --pension.bulk.input=pensioners.csv --pension.bulk.output=disbursement.csv.
+ * With --spring.main.web-application-type=none the application exits once the
+ * job is done.
+ *
+ */
+@Component
+@ConditionalOnProperty("pension.bulk.input")
+@Slf4j
+public class DisbursementJobRunner implements ApplicationRunner {
+
+	@Autowired
+	private DisbursementFileProcessor disbursementFileProcessor;
+
+	@Value("${pension.bulk.input}")
+	private String input;
+
+	@Value("${pension.bulk.output:disbursement.csv}")
+	private String output;
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		log.info("START - disbursement job {} -> {}", input, output);
+		DisbursementCheckpoint result = disbursementFileProcessor.process(Paths.get(input), Paths.get(output));
+		log.info("END - disbursement job: {} records, {} failed", result.getProcessed(), result.getFailed());
+	}
+}
@@ -0,0 +1,39 @@
+package com.cts.processPension.bulk;
+
+import java.time.LocalDate;
+
+import com.cts.processPension.util.DisplayDateSerializer;
+import com.cts.processPension.util.LocalDateDeserializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One row of a disbursement file, either the pension details and amounts of
+ * a pensioner or the error that prevented calculating them
+ *
+ */
+@AllArgsConstructor
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DisbursementRecord {
+
+	private String aadhaarNumber;
+	private String name;
+	@JsonSerialize(using = DisplayDateSerializer.class)
+	@JsonDeserialize(using = LocalDateDeserializer.class)
+	private LocalDate dateOfBirth;
+	private String pan;
+	private String pensionType;
+	private Double pensionAmount;
+	private Double bankServiceCharge;
+	private Double totalAmount;
+	private String errorMessage;
+
+	public static DisbursementRecord error(String aadhaarNumber, String errorMessage) {
+		return new DisbursementRecord(aadhaarNumber, null, null, null, null, null, null, null, errorMessage);
+	}
+}
@@ -0,0 +1,23 @@
+package com.cts.processPension.bulk;
+
+import java.time.Duration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Outcome of one invocation of a monthly disbursement run, counting only the
+ * pensioners processed by this invocation when it resumed an earlier one
+ *
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class DisbursementRunSummary {
+
+	private String runMonth;
+	private long processed;
+	private long changed;
+	private Duration elapsed;
+}
@@ -0,0 +1,104 @@
+package com.cts.processPension.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads UTF-8 lines from a file through a memory-mapped window that slides
+ * over the file, so memory use does not depend on the file size. The position
+ * after every line is known, which lets a reader resume at a line boundary.
+ *
+ */
+public class MappedLineReader implements Closeable {
+
+	private final FileChannel channel;
+
+	private final long size;
+
+	private final int windowSize;
+
+	private MappedByteBuffer window;
+
+	private long windowStart;
+
+	private long position;
+
+	public MappedLineReader(Path file, long startPosition, int windowSize) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		this.size = channel.size();
+		this.windowSize = windowSize;
+		this.position = Math.min(startPosition, size);
+	}
+
+	/**
+	 * @return next line without its line terminator, or null at the end of the
+	 *         file
+	 */
+	public String readLine() throws IOException {
+		if (position >= size) {
+			return null;
+		}
+		if (window == null || position >= windowStart + window.limit()) {
+			map(position);
+		}
+		int start = (int) (position - windowStart);
+		while (true) {
+			int end = start;
+			int limit = window.limit();
+			while (end < limit && window.get(end) != '\n') {
+				end++;
+			}
+			if (end < limit) {
+				String line = decode(start, end);
+				position = windowStart + end + 1;
+				return line;
+			}
+			if (windowStart + limit >= size) {
+				// last line without a line terminator
+				String line = decode(start, limit);
+				position = size;
+				return line;
+			}
+			if (start == 0) {
+				throw new IOException("Line at position " + position + " is longer than " + windowSize + " bytes");
+			}
+			// the line crosses the end of the window, move the window to its start
+			map(position);
+			start = 0;
+		}
+	}
+
+	/**
+	 * @return position just after the last line read
+	 */
+	public long position() {
+		return position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		channel.close();
+	}
+
+	private void map(long start) throws IOException {
+		windowStart = start;
+		window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+	}
+
+	private String decode(int start, int end) {
+		if (end > start && window.get(end - 1) == '\r') {
+			end--;
+		}
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = window.get(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
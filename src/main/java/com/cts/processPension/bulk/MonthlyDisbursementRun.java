@@ -0,0 +1,473 @@
+package com.cts.processPension.bulk;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cts.processPension.cache.PensionAmountStore;
+import com.cts.processPension.model.DisbursementPartition;
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.repository.DisbursementPartitionRepository;
+import com.cts.processPension.rule.PensionRule;
+import com.cts.processPension.rule.PensionRuleEngine;
+import com.cts.processPension.rule.RuleCodes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Computes the pension amount of every stored pensioner once a month.
+ *
+ * The aadhaar number space is split into ranges (partitions) run in parallel
+ * on a fork-join pool. A partition reads its pensioners in chunks ordered by
+ * aadhaar number, each chunk starting after the last aadhaar number of the
+ * previous one (keyset pagination), together with the stored amount
+ * fingerprint. Only missing or changed amounts are written, with JDBC batches.
+ * The writes of a chunk and the checkpoint of its partition are committed in
+ * one transaction, so a run interrupted for any reason resumes after the last
+ * committed chunk when started again for the same month.
+ * <p>
+ * Runs of the same month on several instances share the partitions through
+ * the database: a run claims a partition with a conditional update of its
+ * checkpoint before processing it and every chunk transaction renews the
+ * claim, holding the row lock until it commits, so a partition is processed
+ * by one run at a time. A claim not renewed within claim-ttl, e.g. of a run
+ * that stopped, may be taken over. The checkpoints hold the range of their
+ * partition, a month started with other partitions is not resumed.
+ *
+ */
+@Component
+@Slf4j
+public class MonthlyDisbursementRun {
+
+	private static final long AADHAAR_NUMBERS = 1_000_000_000_000L;
+
+	private static final String SELECT_CHUNK = "SELECT p.aadhaar_number, p.salary, p.allowance, p.pension_type, "
+			+ "b.bank_type, a.aadhaar_number AS stored, a.fingerprint FROM pensioner_detail p "
+			+ "LEFT JOIN bank b ON b.account_number = p.bank_account_number "
+			+ "LEFT JOIN pension_amount_detail a ON a.aadhaar_number = p.aadhaar_number "
+			+ "WHERE p.aadhaar_number >= ? AND p.aadhaar_number > ? %s "
+			+ "ORDER BY p.aadhaar_number FETCH FIRST ? ROWS ONLY";
+
+	private static final String UPDATE_AMOUNT = "UPDATE pension_amount_detail SET pension_amount = ?, "
+			+ "bank_service_charge = ?, total_amount = ?, fingerprint = ? WHERE aadhaar_number = ?";
+
+	private static final String INSERT_AMOUNT = "INSERT INTO pension_amount_detail (pension_amount, "
+			+ "bank_service_charge, total_amount, fingerprint, aadhaar_number) VALUES (?, ?, ?, ?, ?)";
+
+	private static final String INSERT_PARTITION = "INSERT INTO disbursement_partition (id, run_month, "
+			+ "partition_index, lower_bound, upper_bound, processed, completed) VALUES (?, ?, ?, ?, ?, 0, FALSE)";
+
+	private static final String CLAIM_PARTITION = "UPDATE disbursement_partition SET claimed_by = ?, "
+			+ "claimed_until = ? WHERE id = ? AND completed = FALSE "
+			+ "AND (claimed_by IS NULL OR claimed_by = ? OR claimed_until < ?)";
+
+	private static final String RENEW_CLAIM = "UPDATE disbursement_partition SET claimed_until = ? "
+			+ "WHERE id = ? AND claimed_by = ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DisbursementPartitionRepository disbursementPartitionRepository;
+
+	@Autowired
+	private PensionRuleEngine pensionRuleEngine;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	@Value("${pension.monthly-run.partitions:16}")
+	private int partitions;
+
+	@Value("${pension.monthly-run.parallelism:4}")
+	private int parallelism;
+
+	@Value("${pension.monthly-run.chunk-size:1000}")
+	private int chunkSize;
+
+	@Value("${pension.monthly-run.progress-interval:10s}")
+	private Duration progressInterval;
+
+	/**
+	 * Time after which the claim of a partition whose run stopped renewing it
+	 * may be taken over, longer than a chunk takes
+	 */
+	@Value("${pension.monthly-run.claim-ttl:2m}")
+	private Duration claimTtl;
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private TransactionTemplate transactionTemplate;
+
+	private Counter unchanged;
+
+	private Counter updated;
+
+	private Counter inserted;
+
+	@PostConstruct
+	public void setUp() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+		unchanged = registry.counter("pension.monthly.run.records", "result", "unchanged");
+		updated = registry.counter("pension.monthly.run.records", "result", "updated");
+		inserted = registry.counter("pension.monthly.run.records", "result", "inserted");
+	}
+
+	@Scheduled(cron = "${pension.monthly-run.cron:0 0 1 1 * *}")
+	public void runScheduled() {
+		run(YearMonth.now());
+	}
+
+	/**
+	 * Compute the pension amounts of every stored pensioner for the month,
+	 * resuming the run of that month if it was interrupted
+	 *
+	 * @param month
+	 * @return what this invocation processed, null if a run is already going on
+	 * @throws IllegalStateException if the month was started with other
+	 *                               partitions
+	 */
+	public DisbursementRunSummary run(YearMonth month) {
+		if (!running.compareAndSet(false, true)) {
+			log.warn("Disbursement run {} not started, a run is already going on", month);
+			return null;
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			checkPartitions(month.toString());
+			Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pensioner_detail", Long.class);
+			RunProgress progress = new RunProgress(month.toString(), total == null ? 0 : total);
+			log.info("START - disbursement run {} over {} pensioners in {} partitions", month, progress.total,
+					partitions);
+			pool.invoke(new PartitionRange(progress, 0, partitions));
+			DisbursementRunSummary summary = progress.summary();
+			if (progress.skipped.sum() > 0) {
+				log.warn("Disbursement run {}: {} partitions left to other runs", month, progress.skipped.sum());
+			}
+			log.info("END - disbursement run {}: {} pensioners, {} changed in {} ({} per second)", month,
+					summary.getProcessed(), summary.getChanged(), summary.getElapsed(), progress.rate());
+			return summary;
+		} finally {
+			pool.shutdown();
+			running.set(false);
+		}
+	}
+
+	/**
+	 * Lowest aadhaar number of the partition, the first partition also takes
+	 * any key sorting below the 12 digit numbers
+	 */
+	String lowerBound(int partition) {
+		return partition == 0 ? "" : String.format("%012d", AADHAAR_NUMBERS * partition / partitions);
+	}
+
+	/**
+	 * Aadhaar number above the partition, null for the last partition
+	 */
+	String upperBound(int partition) {
+		return partition + 1 < partitions ? lowerBound(partition + 1) : null;
+	}
+
+	/**
+	 * Refuse to resume a month whose checkpoints cover other ranges than the
+	 * configured partitions
+	 */
+	private void checkPartitions(String runMonth) {
+		for (DisbursementPartition checkpoint : disbursementPartitionRepository.findByRunMonth(runMonth)) {
+			checkRange(checkpoint);
+		}
+	}
+
+	private void checkRange(DisbursementPartition checkpoint) {
+		int partition = checkpoint.getPartitionIndex();
+		if (partition >= partitions || !Objects.equals(checkpoint.getLowerBound(), lowerBound(partition))
+				|| !Objects.equals(checkpoint.getUpperBound(), upperBound(partition))) {
+			throw new IllegalStateException("Disbursement run " + checkpoint.getRunMonth()
+					+ " was started with other partitions than the " + partitions + " configured");
+		}
+	}
+
+	private void runPartition(RunProgress progress, int partition) {
+		String id = progress.runMonth + "/" + partition;
+		String lowerBound = lowerBound(partition);
+		String upperBound = upperBound(partition);
+		if (!disbursementPartitionRepository.existsById(id)) {
+			// inserted rather than saved, a save would overwrite the checkpoint of
+			// another run creating it meanwhile
+			try {
+				jdbcTemplate.update(INSERT_PARTITION, id, progress.runMonth, partition, lowerBound, upperBound);
+			} catch (DataIntegrityViolationException e) {
+				// created by another run meanwhile
+			}
+		}
+		if (!claim(progress, id)) {
+			return;
+		}
+		boolean completed = false;
+		while (!completed) {
+			completed = processChunk(progress, id, lowerBound, upperBound);
+			progress.report();
+		}
+	}
+
+	/**
+	 * @return true if the partition is claimed by this run, false if it is
+	 *         completed or claimed by another run
+	 */
+	private boolean claim(RunProgress progress, String id) {
+		Instant now = Instant.now();
+		boolean claimed = jdbcTemplate.update(CLAIM_PARTITION, progress.claimant, now.plus(claimTtl), id,
+				progress.claimant, now) == 1;
+		if (!claimed && disbursementPartitionRepository.findById(id).map(p -> !p.isCompleted()).orElse(false)) {
+			log.info("Disbursement partition {} is claimed by another run", id);
+			progress.skipped.increment();
+		}
+		return claimed;
+	}
+
+	/**
+	 * @return true once the partition is completed or its claim was lost
+	 */
+	private boolean processChunk(RunProgress progress, String id, String lowerBound, String upperBound) {
+		ChunkResult result;
+		try {
+			result = transactionTemplate.execute(status -> runChunk(progress, id, lowerBound, upperBound));
+		} catch (DataIntegrityViolationException e) {
+			// a request stored an amount of the chunk meanwhile, read it again
+			log.debug("Retrying chunk of {}: {}", id, e.getMessage());
+			result = transactionTemplate.execute(status -> runChunk(progress, id, lowerBound, upperBound));
+		}
+		unchanged.increment(result.rows - result.updated - result.inserted);
+		updated.increment(result.updated);
+		inserted.increment(result.inserted);
+		progress.add(result.rows, result.updated + result.inserted);
+		return result.completed;
+	}
+
+	/**
+	 * Renew the claim, locking the checkpoint row, then process the chunk after
+	 * the checkpoint, in the caller's transaction
+	 */
+	private ChunkResult runChunk(RunProgress progress, String id, String lowerBound, String upperBound) {
+		if (jdbcTemplate.update(RENEW_CLAIM, Instant.now().plus(claimTtl), id, progress.claimant) != 1) {
+			log.warn("Disbursement partition {} was claimed by another run", id);
+			progress.skipped.increment();
+			return new ChunkResult(0, 0, 0, true);
+		}
+		DisbursementPartition checkpoint = disbursementPartitionRepository.findById(id)
+				.orElseThrow(() -> new IllegalStateException("Disbursement partition " + id + " disappeared"));
+		checkRange(checkpoint);
+		if (checkpoint.isCompleted()) {
+			return new ChunkResult(0, 0, 0, true);
+		}
+		return writeChunk(checkpoint, readChunk(lowerBound, upperBound, checkpoint.getLastAadhaarNumber()));
+	}
+
+	private List<ChunkRow> readChunk(String lowerBound, String upperBound, String lastAadhaarNumber) {
+		String after = lastAadhaarNumber == null ? "" : lastAadhaarNumber;
+		if (upperBound == null) {
+			return jdbcTemplate.query(String.format(SELECT_CHUNK, ""), this::toChunkRow, lowerBound, after,
+					chunkSize);
+		}
+		return jdbcTemplate.query(String.format(SELECT_CHUNK, "AND p.aadhaar_number < ?"), this::toChunkRow,
+				lowerBound, after, upperBound, chunkSize);
+	}
+
+	private ChunkRow toChunkRow(ResultSet resultSet, int rowNumber) throws SQLException {
+		String aadhaarNumber = resultSet.getString(1);
+		double salary = resultSet.getDouble(2);
+		double allowance = resultSet.getDouble(3);
+		String pensionType = resultSet.getString(4);
+		String bankType = resultSet.getString(5);
+		boolean stored = resultSet.getString(6) != null;
+		String storedFingerprint = resultSet.getString(7);
+		PensionRule rule = pensionRuleEngine.find(RuleCodes.pensionType(pensionType), RuleCodes.bankType(bankType));
+		String fingerprint = PensionAmountStore.fingerprint(salary, allowance, pensionType, bankType, rule);
+		PensionAmountDetail amount = fingerprint.equals(storedFingerprint) ? null
+				: PensionAmountStore.calculate(aadhaarNumber, salary, allowance, rule, fingerprint);
+		return new ChunkRow(aadhaarNumber, stored, amount);
+	}
+
+	/**
+	 * Write the missing and changed amounts of the chunk and move the checkpoint
+	 * past it, in the caller's transaction
+	 */
+	private ChunkResult writeChunk(DisbursementPartition checkpoint, List<ChunkRow> rows) {
+		List<Object[]> updates = new ArrayList<>();
+		List<Object[]> inserts = new ArrayList<>();
+		for (ChunkRow row : rows) {
+			if (row.amount != null) {
+				(row.stored ? updates : inserts).add(new Object[] { row.amount.getPensionAmount(),
+						row.amount.getBankServiceCharge(), row.amount.getTotalAmount(), row.amount.getFingerprint(),
+						row.aadhaarNumber });
+			}
+		}
+		if (!updates.isEmpty()) {
+			jdbcTemplate.batchUpdate(UPDATE_AMOUNT, updates);
+		}
+		if (!inserts.isEmpty()) {
+			jdbcTemplate.batchUpdate(INSERT_AMOUNT, inserts);
+		}
+		if (!rows.isEmpty()) {
+			checkpoint.setLastAadhaarNumber(rows.get(rows.size() - 1).aadhaarNumber);
+		}
+		checkpoint.setProcessed(checkpoint.getProcessed() + rows.size());
+		checkpoint.setCompleted(rows.size() < chunkSize);
+		checkpoint.setUpdatedAt(Instant.now());
+		if (checkpoint.isCompleted()) {
+			checkpoint.setClaimedBy(null);
+			checkpoint.setClaimedUntil(null);
+		}
+		disbursementPartitionRepository.save(checkpoint);
+		return new ChunkResult(rows.size(), updates.size(), inserts.size(), checkpoint.isCompleted());
+	}
+
+	private static final class ChunkRow {
+
+		private final String aadhaarNumber;
+
+		private final boolean stored;
+
+		// null when the stored amount is current
+		private final PensionAmountDetail amount;
+
+		ChunkRow(String aadhaarNumber, boolean stored, PensionAmountDetail amount) {
+			this.aadhaarNumber = aadhaarNumber;
+			this.stored = stored;
+			this.amount = amount;
+		}
+	}
+
+	private static final class ChunkResult {
+
+		private final int rows;
+
+		private final int updated;
+
+		private final int inserted;
+
+		private final boolean completed;
+
+		ChunkResult(int rows, int updated, int inserted, boolean completed) {
+			this.rows = rows;
+			this.updated = updated;
+			this.inserted = inserted;
+			this.completed = completed;
+		}
+	}
+
+	/**
+	 * Splits a range of partitions in halves until each task runs one partition
+	 */
+	private final class PartitionRange extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient RunProgress progress;
+
+		private final int from;
+
+		private final int to;
+
+		PartitionRange(RunProgress progress, int from, int to) {
+			this.progress = progress;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				runPartition(progress, from);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new PartitionRange(progress, from, middle), new PartitionRange(progress, middle, to));
+		}
+	}
+
+	private final class RunProgress {
+
+		private final String runMonth;
+
+		// claims this run's partitions
+		private final String claimant = UUID.randomUUID().toString();
+
+		private final long total;
+
+		private final long startNanos = System.nanoTime();
+
+		private final LongAdder processed = new LongAdder();
+
+		private final LongAdder changed = new LongAdder();
+
+		// partitions left to other runs
+		private final LongAdder skipped = new LongAdder();
+
+		private final AtomicLong nextReportNanos;
+
+		RunProgress(String runMonth, long total) {
+			this.runMonth = runMonth;
+			this.total = total;
+			this.nextReportNanos = new AtomicLong(startNanos + progressInterval.toNanos());
+		}
+
+		void add(long rows, long changedRows) {
+			processed.add(rows);
+			changed.add(changedRows);
+		}
+
+		/**
+		 * Log the progress at most once per progress interval
+		 */
+		void report() {
+			long now = System.nanoTime();
+			long next = nextReportNanos.get();
+			if (now >= next && nextReportNanos.compareAndSet(next, now + progressInterval.toNanos())) {
+				log.info("Disbursement run {}: {} of {} pensioners, {} changed, {} per second", runMonth,
+						processed.sum(), total, changed.sum(), rate());
+			}
+		}
+
+		long rate() {
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+			return elapsedMillis == 0 ? processed.sum() : processed.sum() * 1000 / elapsedMillis;
+		}
+
+		DisbursementRunSummary summary() {
+			return new DisbursementRunSummary(runMonth, processed.sum(), changed.sum(),
+					Duration.ofNanos(System.nanoTime() - startNanos));
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.cts.processPension.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.cts.processPension.metrics.PensionMetrics;
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.repository.PensionDetailsRepository;
+import com.cts.processPension.rule.PensionRule;
+import com.cts.processPension.rule.PensionRuleEngine;
+import com.cts.processPension.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Memoized pension amounts. Every calculated amount is stored by aadhaar
+ * number together with a fingerprint of the salary, allowance, pension type,
+ * bank type and the rule applied; a stored amount is reused as long as the
+ * fingerprint matches and recalculated once any of those inputs changed.
+ * Concurrent lookups of the same pensioner and fingerprint share one read and
+ * one upsert.
+ *
+ */
+@Component
+public class PensionAmountStore {
+
+	@Autowired
+	private PensionDetailsRepository pensionDetailsRepository;
+
+	@Autowired
+	private PensionRuleEngine pensionRuleEngine;
+
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	private Counter hits;
+
+	private Counter misses;
+
+	private Counter stale;
+
+	private SingleFlight<String, PensionAmountDetail> lookups;
+
+	@PostConstruct
+	public void setUp() {
+		MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+		hits = registry.counter("pension.amount.lookup", "result", "hit");
+		misses = registry.counter("pension.amount.lookup", "result", "miss");
+		stale = registry.counter("pension.amount.lookup", "result", "stale");
+		Counter coalesced = registry.counter("pension.lookup.coalesced", "lookup", "pension-amount");
+		lookups = new SingleFlight<>(coalesced::increment);
+		registry.gauge("pension.lookup.in.flight", Tags.of("lookup", "pension-amount"), lookups, SingleFlight::size);
+	}
+
+	/**
+	 * Get the pension amount of a pensioner, calculating and storing it if it is
+	 * missing or stale
+	 *
+	 * @param pensionerDetail
+	 * @return stored pension amount detail
+	 */
+	public PensionAmountDetail get(PensionerDetail pensionerDetail) {
+		return pensionMetrics.time(PensionMetrics.STAGE_PENSION_AMOUNT, () -> {
+			PensionRule rule = findRule(pensionerDetail);
+			String fingerprint = fingerprint(pensionerDetail, rule);
+			return lookups.run(pensionerDetail.getAadhaarNumber() + ":" + fingerprint,
+					() -> getOrCalculate(pensionerDetail, rule, fingerprint));
+		});
+	}
+
+	private PensionAmountDetail getOrCalculate(PensionerDetail pensionerDetail, PensionRule rule, String fingerprint) {
+		PensionAmountDetail stored = pensionDetailsRepository.findById(pensionerDetail.getAadhaarNumber())
+				.orElse(null);
+		if (isCurrent(stored, fingerprint)) {
+			return stored;
+		}
+		PensionAmountDetail calculated = calculate(pensionerDetail, rule, fingerprint);
+		// an upsert, saving would merge and read the row again
+		pensionDetailsRepository.upsertAll(Collections.singletonList(calculated));
+		return calculated;
+	}
+
+	/**
+	 * Get the pension amounts of several pensioners with one read and one
+	 * batched upsert of the missing or stale amounts
+	 *
+	 * @param pensionerDetails pensioner details with aadhaar number
+	 * @return pension amount detail by aadhaar number
+	 */
+	public Map<String, PensionAmountDetail> getAll(Collection<PensionerDetail> pensionerDetails) {
+		return pensionMetrics.time(PensionMetrics.STAGE_PENSION_AMOUNT, () -> getOrCalculateAll(pensionerDetails));
+	}
+
+	private Map<String, PensionAmountDetail> getOrCalculateAll(Collection<PensionerDetail> pensionerDetails) {
+		Map<String, PensionAmountDetail> stored = new LinkedHashMap<>();
+		List<String> aadhaarNumbers = new ArrayList<>(pensionerDetails.size());
+		pensionerDetails.forEach(pensionerDetail -> aadhaarNumbers.add(pensionerDetail.getAadhaarNumber()));
+		pensionDetailsRepository.findAllById(aadhaarNumbers)
+				.forEach(amountDetail -> stored.put(amountDetail.getAadhaarNumber(), amountDetail));
+
+		Map<String, PensionAmountDetail> results = new LinkedHashMap<>();
+		List<PensionAmountDetail> calculated = new ArrayList<>();
+		for (PensionerDetail pensionerDetail : pensionerDetails) {
+			PensionRule rule = findRule(pensionerDetail);
+			String fingerprint = fingerprint(pensionerDetail, rule);
+			PensionAmountDetail amountDetail = stored.get(pensionerDetail.getAadhaarNumber());
+			if (!isCurrent(amountDetail, fingerprint)) {
+				amountDetail = calculate(pensionerDetail, rule, fingerprint);
+				calculated.add(amountDetail);
+			}
+			results.put(pensionerDetail.getAadhaarNumber(), amountDetail);
+		}
+		if (!calculated.isEmpty()) {
+			pensionDetailsRepository.upsertAll(calculated);
+		}
+		return results;
+	}
+
+	private boolean isCurrent(PensionAmountDetail stored, String fingerprint) {
+		if (stored == null) {
+			misses.increment();
+			return false;
+		}
+		if (!fingerprint.equals(stored.getFingerprint())) {
+			stale.increment();
+			return false;
+		}
+		hits.increment();
+		return true;
+	}
+
+	private PensionRule findRule(PensionerDetail pensionerDetail) {
+		return pensionRuleEngine.find(pensionerDetail.getPensionTypeCode(),
+				pensionerDetail.getBank().getBankTypeCode());
+	}
+
+	private static PensionAmountDetail calculate(PensionerDetail pensionerDetail, PensionRule rule,
+			String fingerprint) {
+		return calculate(pensionerDetail.getAadhaarNumber(), pensionerDetail.getSalary(),
+				pensionerDetail.getAllowance(), rule, fingerprint);
+	}
+
+	/**
+	 * Pension amount detail as stored, amounts are 0 when no rule applies
+	 */
+	public static PensionAmountDetail calculate(String aadhaarNumber, double salary, double allowance,
+			PensionRule rule, String fingerprint) {
+		double pensionAmount = rule == null ? 0 : rule.pensionAmount(salary, allowance);
+		double serviceCharge = rule == null ? 0 : rule.getServiceCharge();
+		return new PensionAmountDetail(aadhaarNumber, pensionAmount, serviceCharge,
+				rule == null ? 0 : pensionAmount - serviceCharge, fingerprint);
+	}
+
+	static String fingerprint(PensionerDetail pensionerDetail, PensionRule rule) {
+		return fingerprint(pensionerDetail.getSalary(), pensionerDetail.getAllowance(),
+				pensionerDetail.getPensionType(), pensionerDetail.getBank().getBankType(), rule);
+	}
+
+	/**
+	 * Hash of everything the pension amount depends on, including the rule so
+	 * that changed rules invalidate stored amounts
+	 */
+	public static String fingerprint(double salary, double allowance, String pensionType, String bankType,
+			PensionRule rule) {
+		String inputs = salary + "|" + allowance + "|" + lowerCase(pensionType) + "|" + lowerCase(bankType)
+				+ "|" + (rule == null ? "-" : rule.getSalaryMultiplier() + "|" + rule.getServiceCharge());
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(inputs.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().withoutPadding().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static String lowerCase(String value) {
+		return value == null ? null : value.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,510 @@
+package com.cts.processPension.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.cts.processPension.cluster.CacheOwnership;
+import com.cts.processPension.cluster.OwnershipChangedEvent;
+import com.cts.processPension.exception.ServiceUnavailableException;
+import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.metrics.PensionMetrics;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.repository.PensionerDetailWriter;
+import com.cts.processPension.repository.PensionerDetailsRepository;
+import com.cts.processPension.util.SingleFlight;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Read-through cache for pensioner details. Lookups are served from a bounded
+ * in-memory cache (L1), then from the snapshot stored in the local database
+ * (L2), and only reach the pensioner detail micro-service when both miss or
+ * have expired.
+ *
+ * Calls to the micro-service go through a bulkhead limiting how many requests
+ * wait on it at once and a circuit breaker that stops calling it while it
+ * fails. A call that is not permitted falls back to the last stored snapshot,
+ * however old, marked as stale.
+ *
+ * Concurrent misses for the same aadhaar number are coalesced: the first one
+ * loads and stores the pensioner details and the others wait for its result.
+ * Coalescing is keyed per aadhaar number in a concurrent map, lookups of
+ * different pensioners never wait on each other.
+ *
+ * With several instances registered, a pensioner is cached only by the
+ * instance owning its aadhaar number (see {@link CacheOwnership}), the others
+ * ask the owner on a miss.
+ *
+ * The reactive stack looks pensioners up through {@link #getReactive}, which
+ * takes the same path without blocking the calling thread.
+ *
+ */
+@Component
+@Slf4j
+public class PensionerDetailCache {
+
+	private static final String PENSIONER_DETAIL_SERVICE = "pensionerDetailService";
+
+	@Autowired
+	private PensionerDetailsClient pensionerDetailClient;
+
+	@Autowired
+	private PensionerDetailsRepository pensionerDetailsRepository;
+
+	@Autowired
+	private PensionerDetailWriter pensionerDetailWriter;
+
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
+	@Autowired
+	private CacheOwnership cacheOwnership;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	@Value("${pension.pensioner-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${pension.pensioner-cache.maximum-size:100000}")
+	private long maximumSize;
+
+	@Value("${pension.pensioner-cache.l1-ttl:10m}")
+	private Duration l1Ttl;
+
+	@Value("${pension.pensioner-cache.l2-ttl:24h}")
+	private Duration l2Ttl;
+
+	@Value("${pension.pensioner-circuit.failure-rate-threshold:50}")
+	private float failureRateThreshold;
+
+	@Value("${pension.pensioner-circuit.slow-call-duration:2s}")
+	private Duration slowCallDuration;
+
+	@Value("${pension.pensioner-circuit.sliding-window-size:20}")
+	private int slidingWindowSize;
+
+	@Value("${pension.pensioner-circuit.wait-in-open-state:30s}")
+	private Duration waitInOpenState;
+
+	@Value("${pension.pensioner-circuit.max-concurrent-calls:20}")
+	private int maxConcurrentCalls;
+
+	@Value("${pension.pensioner-circuit.max-wait:0ms}")
+	private Duration maxWait;
+
+	private Cache<String, PensionerDetail> cache;
+
+	private Counter l2Hits;
+
+	private Counter remoteFetches;
+
+	private Counter staleFallbacks;
+
+	private SingleFlight<String, PensionerDetail> loads;
+
+	private CircuitBreaker circuitBreaker;
+
+	private Bulkhead bulkhead;
+
+	@PostConstruct
+	public void setUp() {
+		cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(l1Ttl).recordStats().build();
+		MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+		CaffeineCacheMetrics.monitor(registry, cache, "pensionerDetail");
+		l2Hits = registry.counter("pensioner.detail.lookup", "source", "database");
+		remoteFetches = registry.counter("pensioner.detail.lookup", "source", "remote");
+		staleFallbacks = registry.counter("pensioner.detail.lookup", "source", "stale-snapshot");
+		Counter coalesced = registry.counter("pension.lookup.coalesced", "lookup", "pensioner-detail");
+		loads = new SingleFlight<>(coalesced::increment);
+		registry.gauge("pension.lookup.in.flight", Tags.of("lookup", "pensioner-detail"), loads, SingleFlight::size);
+
+		CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+				.failureRateThreshold(failureRateThreshold)
+				.slowCallDurationThreshold(slowCallDuration)
+				.slidingWindowSize(slidingWindowSize)
+				.minimumNumberOfCalls(slidingWindowSize)
+				.waitDurationInOpenState(waitInOpenState)
+				.recordException(PensionerDetailCache::isServiceFailure)
+				.build());
+		BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+				.maxConcurrentCalls(maxConcurrentCalls)
+				.maxWaitDuration(maxWait)
+				.build());
+		circuitBreaker = circuitBreakers.circuitBreaker(PENSIONER_DETAIL_SERVICE);
+		bulkhead = bulkheads.bulkhead(PENSIONER_DETAIL_SERVICE);
+		circuitBreaker.getEventPublisher().onStateTransition(
+				event -> log.warn("Pensioner detail service circuit {}", event.getStateTransition()));
+		TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(registry);
+		TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry);
+	}
+
+	/**
+	 * Get the pensioner details by aadhaar number, reading through the local
+	 * caches before calling the pensioner detail micro-service
+	 *
+	 * @param aadhaarNumber
+	 * @param token         access token to ask the owning instance with, the
+	 *                      pensioner is loaded locally when null
+	 * @return Pensioner Details, possibly without aadhaar number if not found
+	 */
+	public PensionerDetail get(String aadhaarNumber, String token) {
+		PensionerDetail pensionerDetail = getCached(aadhaarNumber);
+		if (pensionerDetail != null) {
+			return pensionerDetail;
+		}
+		pensionerDetail = getFromOwner(aadhaarNumber, token);
+		if (pensionerDetail != null) {
+			return pensionerDetail;
+		}
+		return loads.run(aadhaarNumber, () -> load(aadhaarNumber));
+	}
+
+	private PensionerDetail getFromOwner(String aadhaarNumber, String token) {
+		if (!isForwarded(aadhaarNumber, token)) {
+			return null;
+		}
+		return cacheOwnership.getFromOwner(aadhaarNumber, token);
+	}
+
+	private boolean isForwarded(String aadhaarNumber, String token) {
+		return enabled && token != null && !cacheOwnership.isOwner(aadhaarNumber);
+	}
+
+	/**
+	 * Non-blocking counterpart of {@link #get(String, String)}, with the same
+	 * owner forwarding, coalescing, circuit breaker, bulkhead and stale
+	 * fallback. The pensioner detail micro-service is called through the given
+	 * non-blocking fetch, database work and calls to the owner run on the bounded
+	 * elastic scheduler.
+	 *
+	 * @param aadhaarNumber
+	 * @param token         access token to ask the owning instance with, the
+	 *                      pensioner is loaded locally when null
+	 * @param fetch         call to the pensioner detail micro-service
+	 * @return Pensioner Details, possibly without aadhaar number if not found
+	 */
+	public Mono<PensionerDetail> getReactive(String aadhaarNumber, String token,
+			Function<String, Mono<PensionerDetail>> fetch) {
+		PensionerDetail cached = getCached(aadhaarNumber);
+		if (cached != null) {
+			return Mono.just(cached);
+		}
+		Mono<PensionerDetail> load = Mono.defer(() -> Mono
+				.fromFuture(loads.runAsync(aadhaarNumber, () -> loadReactive(aadhaarNumber, fetch).toFuture())));
+		if (!isForwarded(aadhaarNumber, token)) {
+			return load;
+		}
+		return Mono.fromCallable(() -> cacheOwnership.getFromOwner(aadhaarNumber, token))
+				.subscribeOn(Schedulers.boundedElastic()).switchIfEmpty(load);
+	}
+
+	private Mono<PensionerDetail> loadReactive(String aadhaarNumber, Function<String, Mono<PensionerDetail>> fetch) {
+		Mono<PensionerDetail> remote = Mono.defer(() -> fetch.apply(aadhaarNumber))
+				.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+				.transformDeferred(BulkheadOperator.of(bulkhead))
+				.doOnNext(pensionerDetail -> recordRemoteFetch())
+				.onErrorResume(e -> e instanceof CallNotPermittedException || e instanceof BulkheadFullException,
+						e -> Mono.fromCallable(() -> fallback(aadhaarNumber, (RuntimeException) e))
+								.subscribeOn(Schedulers.boundedElastic()))
+				.flatMap(pensionerDetail -> pensionerDetail.isStale() ? Mono.just(pensionerDetail)
+						: Mono.fromCallable(() -> {
+							store(pensionerDetail);
+							return pensionerDetail;
+						}).subscribeOn(Schedulers.boundedElastic()));
+		return Mono.fromCallable(() -> getStored(aadhaarNumber)).subscribeOn(Schedulers.boundedElastic())
+				.switchIfEmpty(remote);
+	}
+
+	/**
+	 * Get the pensioner details by aadhaar number as their owner, reading
+	 * through the local caches without forwarding to another instance
+	 *
+	 * @param aadhaarNumber
+	 * @return Pensioner Details, possibly without aadhaar number if not found
+	 */
+	public PensionerDetail getOwned(String aadhaarNumber) {
+		PensionerDetail pensionerDetail = getCached(aadhaarNumber);
+		if (pensionerDetail != null) {
+			return pensionerDetail;
+		}
+		return loads.run(aadhaarNumber, () -> load(aadhaarNumber));
+	}
+
+	private PensionerDetail load(String aadhaarNumber) {
+		PensionerDetail pensionerDetail = getStored(aadhaarNumber);
+		if (pensionerDetail != null) {
+			return pensionerDetail;
+		}
+		pensionerDetail = fetchRemote(aadhaarNumber);
+		if (!pensionerDetail.isStale()) {
+			store(pensionerDetail);
+		}
+		return pensionerDetail;
+	}
+
+	/**
+	 * Look up the pensioner details held in memory, never blocks
+	 *
+	 * @param aadhaarNumber
+	 * @return Pensioner Details, or null on a miss
+	 */
+	public PensionerDetail getCached(String aadhaarNumber) {
+		return enabled ? cache.getIfPresent(aadhaarNumber) : null;
+	}
+
+	/**
+	 * Look up a fresh snapshot in the local database, promoting it to memory
+	 *
+	 * @param aadhaarNumber
+	 * @return Pensioner Details, or null if there is no fresh snapshot
+	 */
+	private PensionerDetail getStored(String aadhaarNumber) {
+		if (!enabled) {
+			return null;
+		}
+		PensionerDetail pensionerDetail = pensionerDetailsRepository.findById(aadhaarNumber).filter(this::isFresh)
+				.orElse(null);
+		if (pensionerDetail != null) {
+			l2Hits.increment();
+			cache.put(aadhaarNumber, pensionerDetail);
+		}
+		return pensionerDetail;
+	}
+
+	/**
+	 * Store pensioner details just fetched from the pensioner detail
+	 * micro-service in the local database and in memory
+	 *
+	 * @param pensionerDetail
+	 */
+	private void store(PensionerDetail pensionerDetail) {
+		if (pensionerDetail.getAadhaarNumber() == null) {
+			return;
+		}
+		// save the input pensioner details into the database
+		pensionerDetail.setFetchedAt(Instant.now());
+		pensionerDetailWriter.save(pensionerDetail);
+		if (enabled) {
+			cache.put(pensionerDetail.getAadhaarNumber(), pensionerDetail);
+		}
+	}
+
+	/**
+	 * Get the pensioner details of several aadhaar numbers at once. Cached
+	 * entries are read in bulk, the remaining ones are asked of their owning
+	 * instance or fetched concurrently on the given executor and stored locally
+	 * with a single batched save.
+	 *
+	 * @param aadhaarNumbers
+	 * @param token          access token to ask the owning instances with, every
+	 *                       pensioner is loaded locally when null
+	 * @param executor       executor bounding the number of concurrent remote
+	 *                       calls
+	 * @return completed future per aadhaar number, failed if its lookup failed
+	 */
+	public Map<String, CompletableFuture<PensionerDetail>> getAll(Collection<String> aadhaarNumbers, String token,
+			Executor executor) {
+		Map<String, CompletableFuture<PensionerDetail>> results = new LinkedHashMap<>();
+		Set<String> misses = new LinkedHashSet<>(aadhaarNumbers);
+		if (enabled) {
+			cache.getAllPresent(misses)
+					.forEach((aadhaarNumber, detail) -> results.put(aadhaarNumber, CompletableFuture.completedFuture(detail)));
+			misses.removeAll(results.keySet());
+			for (PensionerDetail detail : pensionerDetailsRepository.findAllById(misses)) {
+				if (isFresh(detail)) {
+					l2Hits.increment();
+					cache.put(detail.getAadhaarNumber(), detail);
+					results.put(detail.getAadhaarNumber(), CompletableFuture.completedFuture(detail));
+				}
+			}
+			misses.removeAll(results.keySet());
+		}
+
+		// the owner's answer is neither stored nor cached here, an owner that can
+		// not be asked is replaced by a local load like in get
+		Map<String, CompletableFuture<PensionerDetail>> fetches = new LinkedHashMap<>();
+		Map<String, CompletableFuture<PensionerDetail>> forwarded = new LinkedHashMap<>();
+		for (String aadhaarNumber : misses) {
+			if (enabled && token != null && !cacheOwnership.isOwner(aadhaarNumber)) {
+				forwarded.put(aadhaarNumber, CompletableFuture.supplyAsync(() -> {
+					PensionerDetail detail = cacheOwnership.getFromOwner(aadhaarNumber, token);
+					return detail != null ? detail : loads.run(aadhaarNumber, () -> load(aadhaarNumber));
+				}, executor));
+			} else {
+				fetches.put(aadhaarNumber, CompletableFuture
+						.supplyAsync(() -> loads.run(aadhaarNumber, () -> fetchRemote(aadhaarNumber)), executor));
+			}
+		}
+		CompletableFuture.allOf(fetches.values().toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+		CompletableFuture.allOf(forwarded.values().toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+
+		// save every fetched snapshot in one batch
+		Instant fetchedAt = Instant.now();
+		List<PensionerDetail> fetched = new ArrayList<>();
+		for (CompletableFuture<PensionerDetail> fetch : fetches.values()) {
+			if (!fetch.isCompletedExceptionally() && fetch.join().getAadhaarNumber() != null
+					&& !fetch.join().isStale()) {
+				PensionerDetail detail = fetch.join();
+				detail.setFetchedAt(fetchedAt);
+				fetched.add(detail);
+			}
+		}
+		Set<String> unsaved = storeAll(fetched);
+		results.putAll(fetches);
+		results.putAll(forwarded);
+		for (PensionerDetail detail : fetched) {
+			if (unsaved.contains(detail.getAadhaarNumber())) {
+				CompletableFuture<PensionerDetail> failure = new CompletableFuture<>();
+				failure.completeExceptionally(
+						new ServiceUnavailableException("Pensioner details could not be stored, try again later"));
+				results.put(detail.getAadhaarNumber(), failure);
+				continue;
+			}
+			if (enabled) {
+				cache.put(detail.getAadhaarNumber(), detail);
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Save snapshots in one batch, falling back to one save per snapshot when the
+	 * batch fails so that a failing snapshot only fails its own pensioner
+	 *
+	 * @return aadhaar numbers of the snapshots that could not be saved
+	 */
+	private Set<String> storeAll(List<PensionerDetail> pensionerDetails) {
+		try {
+			pensionerDetailWriter.saveAll(pensionerDetails);
+			return Collections.emptySet();
+		} catch (RuntimeException e) {
+			log.warn("Failed to save {} pensioner details, saving them one by one: {}", pensionerDetails.size(),
+					e.getMessage());
+		}
+		Set<String> unsaved = new HashSet<>();
+		for (PensionerDetail pensionerDetail : pensionerDetails) {
+			try {
+				pensionerDetailWriter.save(pensionerDetail);
+			} catch (RuntimeException e) {
+				unsaved.add(pensionerDetail.getAadhaarNumber());
+			}
+		}
+		return unsaved;
+	}
+
+	/**
+	 * Drops every pensioner detail held in memory, the database snapshot is kept
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Drops the pensioner details held in memory for aadhaar numbers now owned
+	 * by another instance
+	 */
+	@EventListener
+	public void onOwnershipChanged(OwnershipChangedEvent event) {
+		int before = cache.asMap().size();
+		cache.asMap().keySet().removeIf(aadhaarNumber -> !event.getSource().isOwner(aadhaarNumber));
+		log.info("Dropped {} pensioner details owned by other instances", before - cache.asMap().size());
+	}
+
+	private PensionerDetail fetchRemote(String aadhaarNumber) {
+		Supplier<PensionerDetail> call = Bulkhead.decorateSupplier(bulkhead,
+				CircuitBreaker.decorateSupplier(circuitBreaker,
+						() -> pensionMetrics.time(PensionMetrics.STAGE_PENSIONER_DETAIL,
+								() -> pensionerDetailClient.getPensionerDetailByAadhaar(aadhaarNumber))));
+		PensionerDetail pensionerDetail;
+		try {
+			pensionerDetail = call.get();
+		} catch (CallNotPermittedException | BulkheadFullException e) {
+			return fallback(aadhaarNumber, e);
+		}
+		recordRemoteFetch();
+		log.debug("Pensioner details fetched from pensioner detail service: {}", pensionerDetail);
+		return pensionerDetail;
+	}
+
+	/**
+	 * Last stored snapshot, whatever its age, for when the pensioner detail
+	 * micro-service may not be called
+	 */
+	private PensionerDetail fallback(String aadhaarNumber, RuntimeException cause) {
+		PensionerDetail snapshot = pensionerDetailsRepository.findById(aadhaarNumber)
+				.orElseThrow(() -> new ServiceUnavailableException("Pensioner details are unavailable, try again later"));
+		log.warn("Serving stored snapshot of {} from {}: {}", aadhaarNumber, snapshot.getFetchedAt(), cause.getMessage());
+		staleFallbacks.increment();
+		snapshot.setStale(true);
+		return snapshot;
+	}
+
+	/**
+	 * Only failures of the micro-service itself count against the circuit, an
+	 * error response about the request (4xx) does not
+	 */
+	private static boolean isServiceFailure(Throwable throwable) {
+		if (throwable instanceof WebClientResponseException) {
+			return ((WebClientResponseException) throwable).getRawStatusCode() >= 500;
+		}
+		return !(throwable instanceof FeignException) || ((FeignException) throwable).status() < 0
+				|| ((FeignException) throwable).status() >= 500;
+	}
+
+	/**
+	 * Count a call made to the pensioner detail micro-service
+	 */
+	private void recordRemoteFetch() {
+		remoteFetches.increment();
+	}
+
+	private boolean isFresh(PensionerDetail pensionerDetail) {
+		return pensionerDetail.getFetchedAt() != null
+				&& pensionerDetail.getFetchedAt().plus(l2Ttl).isAfter(Instant.now());
+	}
+}
@@ -0,0 +1,239 @@
+package com.cts.processPension.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cts.processPension.exception.ServiceUnavailableException;
+import com.cts.processPension.feign.AuthorisationClient;
+import com.cts.processPension.metrics.PensionMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local cache in front of the authorization micro-service. Entries are keyed by
+ * a SHA-256 hash of the token so raw tokens are never retained, valid tokens
+ * are kept no longer than their own "exp" claim and rejected tokens are kept
+ * only for a short negative TTL.
+ * <p>
+ * Calls to the micro-service go through a bulkhead, so that however many
+ * request threads there are (virtual threads have no pool to bound them), at
+ * most max-concurrent-calls wait on it at once. A call not admitted within
+ * max-wait fails with 503.
+ *
+ */
+@Component
+@Slf4j
+public class TokenValidationCache {
+
+	private static final String BEARER_PREFIX = "Bearer ";
+
+	@Autowired
+	private AuthorisationClient authorisationClient;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	@Value("${pension.auth-cache.enabled:true}")
+	private boolean enabled;
+
+	@Value("${pension.auth-cache.maximum-size:10000}")
+	private long maximumSize;
+
+	@Value("${pension.auth-cache.ttl:5m}")
+	private Duration ttl;
+
+	@Value("${pension.auth-cache.negative-ttl:10s}")
+	private Duration negativeTtl;
+
+	@Value("${pension.auth-bulkhead.max-concurrent-calls:50}")
+	private int maxConcurrentCalls;
+
+	@Value("${pension.auth-bulkhead.max-wait:1s}")
+	private Duration maxWait;
+
+	private Cache<String, CachedValidation> cache;
+
+	private Bulkhead bulkhead;
+
+	@PostConstruct
+	public void setUp() {
+		cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(new ValidationExpiry()).recordStats()
+				.build();
+		meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "authTokenValidation"));
+		BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+				.maxConcurrentCalls(maxConcurrentCalls)
+				.maxWaitDuration(maxWait)
+				.build());
+		bulkhead = bulkheads.bulkhead("authService");
+		meterRegistry.ifAvailable(registry -> TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(registry));
+	}
+
+	/**
+	 * Validates the token, calling the authorization micro-service only when no
+	 * live entry exists for it
+	 *
+	 * @param token value of the Authorization header
+	 * @return true only if token is valid else false
+	 */
+	public boolean isValid(String token) {
+		if (!enabled) {
+			return validateRemotely(token);
+		}
+		Boolean cached = getCached(token);
+		if (cached != null) {
+			return cached;
+		}
+		boolean valid = validateRemotely(token);
+		record(token, valid);
+		return valid;
+	}
+
+	private boolean validateRemotely(String token) {
+		try {
+			return Bulkhead.decorateSupplier(bulkhead, () -> pensionMetrics.time(PensionMetrics.STAGE_AUTHORISATION,
+					() -> authorisationClient.validate(token))).get();
+		} catch (BulkheadFullException e) {
+			throw new ServiceUnavailableException("Authorization service is busy, try again later");
+		}
+	}
+
+	/**
+	 * Look up the cached validation result without calling the authorization
+	 * micro-service
+	 *
+	 * @param token value of the Authorization header
+	 * @return cached result, or null if the token has no live entry
+	 */
+	public Boolean getCached(String token) {
+		if (!enabled) {
+			return null;
+		}
+		CachedValidation cached = cache.getIfPresent(hash(token));
+		return cached == null ? null : cached.valid;
+	}
+
+	/**
+	 * Cache a validation result obtained from the authorization micro-service
+	 *
+	 * @param token value of the Authorization header
+	 * @param valid result returned by the authorization micro-service
+	 */
+	public void record(String token, boolean valid) {
+		if (!enabled) {
+			return;
+		}
+		long ttlNanos = valid ? positiveTtlNanos(token) : negativeTtl.toNanos();
+		if (ttlNanos > 0) {
+			cache.put(hash(token), new CachedValidation(valid, ttlNanos));
+		}
+	}
+
+	/**
+	 * Drops every cached validation result
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Configured TTL, capped by the remaining lifetime of the token when it
+	 * carries an "exp" claim
+	 */
+	private long positiveTtlNanos(String token) {
+		long ttlNanos = ttl.toNanos();
+		Long expiresAt = readExpiry(token);
+		if (expiresAt != null) {
+			long remainingMillis = expiresAt * 1000 - System.currentTimeMillis();
+			ttlNanos = Math.min(ttlNanos, Duration.ofMillis(remainingMillis).toNanos());
+		}
+		return ttlNanos;
+	}
+
+	/**
+	 * Reads the "exp" claim of a JWT without verifying it, the signature is
+	 * checked by the authorization micro-service
+	 *
+	 * @return expiry in epoch seconds, or null if the token carries none
+	 */
+	private Long readExpiry(String token) {
+		String jwt = token.startsWith(BEARER_PREFIX) ? token.substring(BEARER_PREFIX.length()) : token;
+		String[] parts = jwt.split("\\.");
+		if (parts.length != 3) {
+			return null;
+		}
+		try {
+			JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+			JsonNode exp = claims.get("exp");
+			return exp != null && exp.canConvertToLong() ? exp.asLong() : null;
+		} catch (Exception e) {
+			log.debug("Unable to read token expiry: {}", e.getMessage());
+			return null;
+		}
+	}
+
+	private static String hash(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().withoutPadding().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static final class CachedValidation {
+		private final boolean valid;
+		private final long ttlNanos;
+
+		private CachedValidation(boolean valid, long ttlNanos) {
+			this.valid = valid;
+			this.ttlNanos = ttlNanos;
+		}
+	}
+
+	private static final class ValidationExpiry implements Expiry<String, CachedValidation> {
+		@Override
+		public long expireAfterCreate(String key, CachedValidation value, long currentTime) {
+			return value.ttlNanos;
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, CachedValidation value, long currentTime,
+				long currentDuration) {
+			return value.ttlNanos;
+		}
+
+		@Override
+		public long expireAfterRead(String key, CachedValidation value, long currentTime,
+				long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
@@ -0,0 +1,222 @@
+package com.cts.processPension.cluster;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.cts.processPension.feign.PeerPensionClient;
+import com.cts.processPension.model.PensionerDetail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Partitions the aadhaar numbers between the registered instances of this
+ * micro-service with a {@link ConsistentHashRing}, so the pensioner details of
+ * a pensioner are cached by a single owner instance instead of by every
+ * instance it is requested from.
+ * <p>
+ * The ring is built from the discovery client when the application is ready
+ * and rebuilt whenever a registry refresh shows instances joining or leaving,
+ * which publishes an {@link OwnershipChangedEvent}. Lookups of a key owned by
+ * another instance are forwarded to the owner with the access token of the
+ * request being served and the secret shared by the instances, which the owner
+ * checks before answering. Without a token, or when the owner can not be
+ * reached, the key is looked up locally.
+ *
+ */
+@Component
+@Slf4j
+public class CacheOwnership {
+
+	@Autowired
+	private ObjectProvider<DiscoveryClient> discoveryClient;
+
+	@Autowired
+	private ObjectProvider<Registration> registration;
+
+	@Autowired
+	private ObjectProvider<PeerPensionClient> peerClient;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	@Value("${pension.ownership.enabled:false}")
+	private boolean enabled;
+
+	@Value("${spring.application.name}")
+	private String serviceId;
+
+	/**
+	 * host:port of this instance as registered, taken from the service
+	 * registration when empty
+	 */
+	@Value("${pension.ownership.self:}")
+	private String self;
+
+	@Value("${server.port:8082}")
+	private int port;
+
+	@Value("${pension.ownership.virtual-nodes:128}")
+	private int virtualNodes;
+
+	/**
+	 * Secret shared by the instances, required when ownership is enabled
+	 */
+	@Value("${pension.ownership.peer-secret:}")
+	private String peerSecret;
+
+	private volatile Ownership ownership;
+
+	private Counter ownerLookups;
+
+	private Counter ownerFailures;
+
+	@PostConstruct
+	public void setUp() {
+		if (enabled && peerSecret.isEmpty()) {
+			throw new IllegalStateException("pension.ownership.peer-secret must be set when ownership is enabled");
+		}
+		MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+		ownerLookups = registry.counter("pension.ownership.forwarded", "result", "success");
+		ownerFailures = registry.counter("pension.ownership.forwarded", "result", "failure");
+		registry.gauge("pension.ownership.members", this, CacheOwnership::memberCount);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() {
+		refresh();
+	}
+
+	@EventListener(HeartbeatEvent.class)
+	public void onRegistryRefresh() {
+		refresh();
+	}
+
+	/**
+	 * Rebuild the ring if the registered instances changed since it was built
+	 */
+	public synchronized void refresh() {
+		if (!enabled) {
+			return;
+		}
+		String selfId = selfId();
+		Map<String, URI> members = new TreeMap<>();
+		DiscoveryClient discovery = discoveryClient.getIfAvailable();
+		if (discovery != null) {
+			for (ServiceInstance instance : discovery.getInstances(serviceId)) {
+				members.put(id(instance.getHost(), instance.getPort()), instance.getUri());
+			}
+		}
+		// an instance owns its share even before it shows in the registry
+		members.putIfAbsent(selfId, null);
+
+		Ownership current = ownership;
+		if (current != null && current.self.equals(selfId) && current.uris.keySet().equals(members.keySet())) {
+			return;
+		}
+		ownership = new Ownership(selfId, new ConsistentHashRing(members.keySet(), virtualNodes), members);
+		log.info("Aadhaar numbers partitioned between {} as {}", members.keySet(), selfId);
+		eventPublisher.publishEvent(new OwnershipChangedEvent(this));
+	}
+
+	/**
+	 * @return true if this instance caches the aadhaar number, always true when
+	 *         ownership is disabled or not yet known
+	 */
+	public boolean isOwner(String aadhaarNumber) {
+		Ownership current = ownership;
+		return current == null || current.self.equals(current.ring.owner(aadhaarNumber));
+	}
+
+	/**
+	 * @return true if the secret is the one shared by the instances, always
+	 *         false when ownership is disabled
+	 */
+	public boolean isPeer(String secret) {
+		return enabled && secret != null && MessageDigest.isEqual(peerSecret.getBytes(StandardCharsets.UTF_8),
+				secret.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Look up the pensioner details on the instance owning the aadhaar number
+	 *
+	 * @param aadhaarNumber
+	 * @param token         access token of the request being served
+	 * @return Pensioner Details held by the owner, or null if this instance owns
+	 *         the aadhaar number, there is no token or the owner could not be
+	 *         asked
+	 */
+	public PensionerDetail getFromOwner(String aadhaarNumber, String token) {
+		Ownership current = ownership;
+		if (current == null) {
+			return null;
+		}
+		String owner = current.ring.owner(aadhaarNumber);
+		URI uri = current.uris.get(owner);
+		PeerPensionClient client = peerClient.getIfAvailable();
+		if (owner.equals(current.self) || uri == null || token == null || client == null) {
+			return null;
+		}
+		try {
+			PensionerDetail pensionerDetail = client.getPensionerDetail(uri, peerSecret, token, aadhaarNumber)
+					.toPensionerDetail();
+			ownerLookups.increment();
+			return pensionerDetail;
+		} catch (RuntimeException e) {
+			ownerFailures.increment();
+			log.debug("Owner {} of {} could not be asked: {}", owner, aadhaarNumber, e.toString());
+			return null;
+		}
+	}
+
+	private int memberCount() {
+		Ownership current = ownership;
+		return current == null ? 0 : current.ring.getMembers().size();
+	}
+
+	private String selfId() {
+		if (!self.isEmpty()) {
+			return self;
+		}
+		Registration own = registration.getIfAvailable();
+		return own != null ? id(own.getHost(), own.getPort()) : id("localhost", port);
+	}
+
+	private static String id(String host, int port) {
+		return host + ":" + port;
+	}
+
+	private static final class Ownership {
+		private final String self;
+		private final ConsistentHashRing ring;
+		private final Map<String, URI> uris;
+
+		private Ownership(String self, ConsistentHashRing ring, Map<String, URI> uris) {
+			this.self = self;
+			this.ring = ring;
+			this.uris = uris;
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.cts.processPension.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent hash ring mapping keys to members. Every member is
+ * placed on the ring at virtual-nodes points and a key belongs to the member
+ * of the first point at or after the hash of the key, so adding or removing a
+ * member only moves the keys of its own points.
+ * <p>
+ * The points are held in sorted parallel arrays, looking up an owner is a
+ * binary search without allocation.
+ *
+ */
+public class ConsistentHashRing {
+
+	private final List<String> members;
+
+	private final long[] points;
+
+	private final String[] owners;
+
+	/**
+	 * @param members      distinct member names, in any order
+	 * @param virtualNodes points per member
+	 */
+	public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+		if (members.isEmpty() || virtualNodes < 1) {
+			throw new IllegalArgumentException("A ring needs at least one member and one virtual node");
+		}
+		this.members = Collections.unmodifiableList(new ArrayList<>(new TreeSet<>(members)));
+		long[] unsorted = new long[this.members.size() * virtualNodes];
+		int i = 0;
+		for (String member : this.members) {
+			for (int node = 0; node < virtualNodes; node++) {
+				unsorted[i++] = hash(member + "#" + node);
+			}
+		}
+		// sort the points, keeping the member of each
+		Integer[] order = new Integer[unsorted.length];
+		for (int j = 0; j < order.length; j++) {
+			order[j] = j;
+		}
+		Arrays.sort(order, (a, b) -> Long.compare(unsorted[a], unsorted[b]));
+		points = new long[unsorted.length];
+		owners = new String[unsorted.length];
+		for (int j = 0; j < order.length; j++) {
+			points[j] = unsorted[order[j]];
+			owners[j] = this.members.get(order[j] / virtualNodes);
+		}
+	}
+
+	/**
+	 * @return the member owning the key
+	 */
+	public String owner(String key) {
+		int index = Arrays.binarySearch(points, hash(key));
+		if (index < 0) {
+			index = -index - 1;
+		}
+		return owners[index == points.length ? 0 : index];
+	}
+
+	/**
+	 * @return the members, sorted
+	 */
+	public List<String> getMembers() {
+		return members;
+	}
+
+	/**
+	 * 64 bit FNV-1a of the UTF-8 bytes, finished with the murmur3 mixer so that
+	 * keys differing in their last digit land far apart
+	 */
+	static long hash(String key) {
+		long h = 0xcbf29ce484222325L;
+		for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+			h ^= b & 0xff;
+			h *= 0x100000001b3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
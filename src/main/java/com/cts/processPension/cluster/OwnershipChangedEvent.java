@@ -0,0 +1,21 @@
+package com.cts.processPension.cluster;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when instances joined or left and the aadhaar numbers were
+ * partitioned again, entries this instance no longer owns may be dropped
+ *
+ */
+public class OwnershipChangedEvent extends ApplicationEvent {
+	private static final long serialVersionUID = 6231487712254290153L;
+
+	public OwnershipChangedEvent(CacheOwnership source) {
+		super(source);
+	}
+
+	@Override
+	public CacheOwnership getSource() {
+		return (CacheOwnership) super.getSource();
+	}
+}
@@ -0,0 +1,68 @@
+package com.cts.processPension.config;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Executor running at most a fixed number of tasks at once on a delegate that
+ * has no bound of its own, such as one virtual thread per task. A task
+ * submitted over the limit is rejected with {@link TaskRejectedException}, as
+ * a full queue of a bounded thread pool would.
+ *
+ */
+public class BoundedTaskExecutor implements AsyncTaskExecutor {
+
+	private final Executor delegate;
+
+	private final Semaphore permits;
+
+	public BoundedTaskExecutor(Executor delegate, int maxConcurrentTasks) {
+		this.delegate = delegate;
+		this.permits = new Semaphore(maxConcurrentTasks);
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		if (!permits.tryAcquire()) {
+			throw new TaskRejectedException("Executor is running its maximum of tasks");
+		}
+		try {
+			delegate.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					permits.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			permits.release();
+			throw new TaskRejectedException("Executor did not accept task", e);
+		}
+	}
+
+	@Override
+	@Deprecated
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	@Override
+	public Future<?> submit(Runnable task) {
+		FutureTask<Object> future = new FutureTask<>(task, null);
+		execute(future);
+		return future;
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		FutureTask<T> future = new FutureTask<>(task);
+		execute(future);
+		return future;
+	}
+}
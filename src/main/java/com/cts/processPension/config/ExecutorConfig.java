@@ -0,0 +1,59 @@
+package com.cts.processPension.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors used to call the other micro-services concurrently
+ *
+ */
+@Configuration
+public class ExecutorConfig {
+
+	/**
+	 * Bounded pool used by batch requests to fetch pensioner details, its size
+	 * caps the number of concurrent calls to the pensioner detail micro-service
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor pensionerLookupExecutor(@Value("${pension.batch.parallelism:8}") int parallelism) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(parallelism);
+		executor.setMaxPoolSize(parallelism);
+		executor.setThreadNamePrefix("pensioner-lookup-");
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		return executor;
+	}
+
+	/**
+	 * Pool used by disbursement file jobs to fetch pensioner details, apart from
+	 * the batch requests so a job cannot take their threads
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor disbursementLookupExecutor(@Value("${pension.bulk.parallelism:4}") int parallelism) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(parallelism);
+		executor.setMaxPoolSize(parallelism);
+		executor.setThreadNamePrefix("disbursement-lookup-");
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		return executor;
+	}
+
+	/**
+	 * Pool used to validate the token and look up the pensioner concurrently,
+	 * replaced by virtual threads in {@link VirtualThreadConfig}
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "pension.virtual-threads.enabled", havingValue = "false", matchIfMissing = true)
+	public ThreadPoolTaskExecutor remoteCallExecutor(@Value("${pension.parallel.pool-size:32}") int poolSize,
+			@Value("${pension.parallel.queue-capacity:1000}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("remote-call-");
+		return executor;
+	}
+}
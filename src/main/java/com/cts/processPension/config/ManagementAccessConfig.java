@@ -0,0 +1,61 @@
+package com.cts.processPension.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import com.cts.processPension.exception.InvalidTokenException;
+
+/**
+ * Guards the actuator endpoints changing the application, such as
+ * /actuator/refresh reloading the pension rules, with an operator secret of
+ * their own; a pensioner's access token is not enough. Without a configured
+ * secret they are always rejected. Rejections are handled by the global
+ * exception handler, like those of the controller.
+ *
+ */
+@Configuration
+@Profile("!reactive")
+public class ManagementAccessConfig {
+
+	public static final String OPERATOR_SECRET_HEADER = "X-Pension-Operator-Secret";
+
+	@Bean
+	public FilterRegistrationBean<OncePerRequestFilter> refreshAccessFilter(
+			@Value("${pension.management.operator-secret:}") String operatorSecret,
+			@Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+			@Value("${management.endpoints.web.base-path:/actuator}") String basePath) {
+		byte[] expected = operatorSecret.getBytes(StandardCharsets.UTF_8);
+		OncePerRequestFilter filter = new OncePerRequestFilter() {
+			@Override
+			protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+					FilterChain chain) throws ServletException, IOException {
+				String secret = request.getHeader(OPERATOR_SECRET_HEADER);
+				if (expected.length == 0 || secret == null
+						|| !MessageDigest.isEqual(expected, secret.getBytes(StandardCharsets.UTF_8))) {
+					exceptionResolver.resolveException(request, response, null,
+							new InvalidTokenException("You are not allowed to access this resource"));
+					return;
+				}
+				chain.doFilter(request, response);
+			}
+		};
+		FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+		registration.addUrlPatterns(basePath + "/refresh");
+		return registration;
+	}
+}
@@ -0,0 +1,25 @@
+package com.cts.processPension.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import com.cts.processPension.metrics.PensionMetrics;
+import com.cts.processPension.metrics.TimedJackson2HttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Replaces the default JSON converter of the servlet stack with one that times
+ * response serialization
+ *
+ */
+@Configuration
+@Profile("!reactive")
+public class MetricsConfig {
+
+	@Bean
+	public TimedJackson2HttpMessageConverter timedJackson2HttpMessageConverter(ObjectMapper objectMapper,
+			PensionMetrics pensionMetrics) {
+		return new TimedJackson2HttpMessageConverter(objectMapper, pensionMetrics);
+	}
+}
@@ -0,0 +1,28 @@
+package com.cts.processPension.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.cts.processPension.bulk.MonthlyDisbursementRun;
+
+/**
+ * Enables the scheduled monthly disbursement run
+ *
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "pension.monthly-run.enabled", havingValue = "true")
+public class SchedulingConfig {
+
+	/**
+	 * Scheduled methods are only found on created beans, so the run must not be
+	 * lazy when spring.main.lazy-initialization is set
+	 */
+	@Bean
+	public static LazyInitializationExcludeFilter scheduledBeans() {
+		return LazyInitializationExcludeFilter.forBeanTypes(MonthlyDisbursementRun.class);
+	}
+}
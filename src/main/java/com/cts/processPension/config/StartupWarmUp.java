@@ -0,0 +1,140 @@
+package com.cts.processPension.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.cts.processPension.controller.ProcessPensionController;
+import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.reactive.ProcessPensionHandler;
+import com.cts.processPension.repository.PensionerDetailsRepository;
+import com.cts.processPension.rule.PensionRuleEngine;
+import com.cts.processPension.rule.RuleCodes;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warms up the request path once the application is ready, then marks the
+ * instance UP in Eureka. With eureka.instance.initial-status set to STARTING
+ * no traffic is routed to the instance before its first request can be served
+ * without initializing lazy beans, opening database connections or building
+ * JSON serializers.
+ * <p>
+ * The time from JVM start to the application being started and to the end of
+ * the warm-up are published as pension.startup (tagged with the phase).
+ *
+ */
+@Component
+@Slf4j
+public class StartupWarmUp {
+
+	private static final String SAMPLE_PENSIONER = "{\"name\":\"Warm Up\",\"aadhaarNumber\":\"000000000000\","
+			+ "\"dateOfBirth\":\"1960-01-01\",\"pan\":\"AAAAA0000A\",\"salary\":1.0,\"allowance\":1.0,"
+			+ "\"pensionType\":\"self\",\"accountNumber\":0,\"bank\":{\"bankName\":\"Warm Up\","
+			+ "\"accountNumber\":0,\"bankType\":\"public\"}}";
+
+	@Value("${pension.startup.warm-up:true}")
+	private boolean warmUp;
+
+	/**
+	 * Exit once ready, used by the training run creating the class data sharing
+	 * archive
+	 */
+	@Value("${pension.startup.exit-when-ready:false}")
+	private boolean exitWhenReady;
+
+	@Autowired
+	private ObjectProvider<ProcessPensionController> controller;
+
+	@Autowired
+	private ObjectProvider<ProcessPensionHandler> handler;
+
+	@Autowired
+	private ObjectProvider<PensionerDetailsRepository> pensionerDetailsRepository;
+
+	@Autowired
+	private ObjectProvider<ApplicationInfoManager> applicationInfoManager;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PensionRuleEngine pensionRuleEngine;
+
+	private volatile long startedMillis;
+
+	private volatile long readyMillis;
+
+	@EventListener
+	public void onStarted(ApplicationStartedEvent event) {
+		startedMillis = sinceJvmStart(event.getTimestamp());
+	}
+
+	@EventListener
+	public void onReady(ApplicationReadyEvent event) {
+		long warmUpStart = System.currentTimeMillis();
+		if (warmUp) {
+			try {
+				warmUp();
+			} catch (Exception e) {
+				// the first requests pay for whatever was not warmed up
+				log.warn("Warm-up failed: {}", e.toString());
+			}
+		}
+		readyMillis = sinceJvmStart(System.currentTimeMillis());
+
+		MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+		TimeGauge.builder("pension.startup", this, TimeUnit.MILLISECONDS, startup -> startup.startedMillis)
+				.tag("phase", "started").register(registry);
+		TimeGauge.builder("pension.startup", this, TimeUnit.MILLISECONDS, startup -> startup.readyMillis)
+				.tag("phase", "ready").register(registry);
+		log.info("Started {} ms after JVM start, warmed up in {} ms, ready after {} ms", startedMillis,
+				System.currentTimeMillis() - warmUpStart, readyMillis);
+
+		ApplicationInfoManager infoManager = applicationInfoManager.getIfAvailable();
+		if (infoManager != null && infoManager.getInfo().getStatus() != InstanceStatus.UP) {
+			infoManager.setInstanceStatus(InstanceStatus.UP);
+			log.info("Registered as UP in Eureka");
+		}
+
+		if (exitWhenReady) {
+			System.exit(SpringApplication.exit(event.getApplicationContext()));
+		}
+	}
+
+	private void warmUp() throws Exception {
+		// create the lazy beans of the request path
+		controller.ifAvailable(ProcessPensionController::getClass);
+		handler.ifAvailable(ProcessPensionHandler::getClass);
+
+		PensionerDetail pensionerDetail = objectMapper.readValue(SAMPLE_PENSIONER, PensionerDetail.class);
+		objectMapper.writeValueAsBytes(new PensionDetail(pensionerDetail.getName(), pensionerDetail.getDateOfBirth(),
+				pensionerDetail.getPan(), pensionerDetail.getPensionType(), 0));
+		pensionRuleEngine.find(pensionerDetail.getPensionTypeCode(), RuleCodes.bankType("public"));
+
+		// opens the connection pool and, with deferred repositories, waits for JPA
+		pensionerDetailsRepository.ifAvailable(PensionerDetailsRepository::count);
+	}
+
+	private static long sinceJvmStart(long timestamp) {
+		return timestamp - ManagementFactory.getRuntimeMXBean().getStartTime();
+	}
+}
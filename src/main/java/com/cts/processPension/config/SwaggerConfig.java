@@ -0,0 +1,31 @@
+package com.cts.processPension.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import springfox.documentation.builders.PathSelectors;
+import springfox.documentation.builders.RequestHandlerSelectors;
+import springfox.documentation.spi.DocumentationType;
+import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.swagger2.annotations.EnableSwagger2;
+
+/**
+ * Swagger documentation of the servlet stack, springfox does not support the
+ * reactive stack. Turned off by pension.swagger.enabled=false to skip the
+ * request handler scan at startup.
+ *
+ */
+@Configuration
+@EnableSwagger2
+@Profile("!reactive")
+@ConditionalOnProperty(name = "pension.swagger.enabled", havingValue = "true", matchIfMissing = true)
+public class SwaggerConfig {
+
+	@Bean
+	public Docket api() {
+		return new Docket(DocumentationType.SWAGGER_2).select().apis(RequestHandlerSelectors.any())
+				.paths(PathSelectors.any()).build();
+	}
+}
@@ -0,0 +1,53 @@
+package com.cts.processPension.config;
+
+import java.util.concurrent.ExecutorService;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import com.cts.processPension.util.VirtualThreads;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs Tomcat request handling on virtual threads, and with it the blocking
+ * calls of the Feign clients, so concurrency is no longer capped by the
+ * platform thread pool. Calls to the authorization micro-service stay bounded
+ * by the bulkhead of the {@link com.cts.processPension.cache.TokenValidationCache}.
+ * Enabled with pension.virtual-threads.enabled and requires a Java 21 runtime.
+ *
+ */
+@Configuration
+@ConditionalOnProperty(name = "pension.virtual-threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+	@Bean
+	public ExecutorService virtualThreadExecutor() {
+		log.info("Handling requests on virtual threads");
+		return VirtualThreads.newVirtualThreadPerTaskExecutor();
+	}
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+			ExecutorService virtualThreadExecutor) {
+		return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+	}
+
+	/**
+	 * Replaces the platform pool used to validate the token and look up the
+	 * pensioner concurrently, keeping its bound: at most as many calls run as
+	 * the pool would have run and queued
+	 */
+	@Bean
+	public AsyncTaskExecutor remoteCallExecutor(ExecutorService virtualThreadExecutor,
+			@Value("${pension.parallel.pool-size:32}") int poolSize,
+			@Value("${pension.parallel.queue-capacity:1000}") int queueCapacity) {
+		return new BoundedTaskExecutor(virtualThreadExecutor, poolSize + queueCapacity);
+	}
+}
@@ -1,20 +1,40 @@
 package com.cts.processPension.controller;
 
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.cts.processPension.cache.PensionerDetailCache;
+import com.cts.processPension.cache.TokenValidationCache;
+import com.cts.processPension.cluster.CacheOwnership;
+import com.cts.processPension.exception.BatchTooLargeException;
 import com.cts.processPension.exception.InvalidTokenException;
-import com.cts.processPension.feign.AuthorisationClient;
+import com.cts.processPension.exception.NotFoundException;
+import com.cts.processPension.feign.PeerPensionClient;
+import com.cts.processPension.metrics.PensionMetrics;
+import com.cts.processPension.model.PeerPensionerDetail;
+import com.cts.processPension.model.PensionBatchResult;
 import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionResultPage;
 import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.ratelimit.AdmissionControl;
+import com.cts.processPension.service.ParallelPensionLookup;
 import com.cts.processPension.service.ProcessPensionServiceImpl;
 
 import lombok.extern.slf4j.Slf4j;
@@ -22,13 +42,43 @@ import lombok.extern.slf4j.Slf4j;
 @RestController
 @Slf4j
 @CrossOrigin
+@Profile("!reactive")
 public class ProcessPensionController {
 
+	private static final Pattern AADHAAR_NUMBER = Pattern.compile("[0-9]{12}");
+
 	@Autowired
 	ProcessPensionServiceImpl processPensionService;
 
 	@Autowired
-	AuthorisationClient authorisationClient;
+	TokenValidationCache tokenValidationCache;
+
+	@Autowired
+	ParallelPensionLookup parallelPensionLookup;
+
+	@Autowired
+	PensionerDetailCache pensionerDetailCache;
+
+	@Autowired
+	PensionMetrics pensionMetrics;
+
+	@Autowired
+	AdmissionControl admissionControl;
+
+	@Autowired
+	CacheOwnership cacheOwnership;
+
+	/**
+	 * Validate the token and look up the pensioner concurrently
+	 */
+	@Value("${pension.parallel.enabled:false}")
+	boolean parallelLookup;
+
+	/**
+	 * Pensioners accepted in one batch request
+	 */
+	@Value("${pension.batch.max-size:500}")
+	int maxBatchSize;
 
 	/**
 	 * @URL: http://localhost:8082/processPension
@@ -41,10 +91,91 @@ public class ProcessPensionController {
 															@RequestBody @Valid PensionerInput pensionerInput)
 	{
 		log.info("START - getPensionDetails()");
-		if (!authorisationClient.validate(token)) {
-			throw new InvalidTokenException("You are not allowed to access this resource");
+		PensionDetail pensionDetail;
+		if (parallelLookup) {
+			pensionDetail = parallelPensionLookup.getPensionDetails(token, pensionerInput);
+		} else {
+			if (!tokenValidationCache.isValid(token)) {
+				throw new InvalidTokenException("You are not allowed to access this resource");
+			}
+			pensionDetail = processPensionService.getPensionDetails(token, pensionerInput);
 		}
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_SUCCESS, HttpStatus.OK.value());
 		log.info("END - getPensionDetails()");
-		return new ResponseEntity<>(processPensionService.getPensionDetails(pensionerInput), HttpStatus.OK);
+		return new ResponseEntity<>(pensionDetail, HttpStatus.OK);
+	}
+
+	/**
+	 * @URL: http://localhost:8082/processPension/batch
+	 * @input: [{ "aadhaarNumber": "123456789011" }, { "aadhaarNumber": "123456789012" }]
+	 * @param pensionerInputs .
+	 * @return pension details or error message for every pensioner, based on access token.
+	 */
+	@PostMapping("/processPension/batch")
+	public ResponseEntity<List<PensionBatchResult>> processPensionBatch(
+			@RequestHeader(name = "Authorization") String token, @RequestBody List<PensionerInput> pensionerInputs,
+			HttpServletRequest request)
+	{
+		log.info("START - processPensionBatch()");
+		if (pensionerInputs.size() > maxBatchSize) {
+			throw new BatchTooLargeException("A batch holds at most " + maxBatchSize + " pensioners");
+		}
+		admissionControl.admitBatch(request, pensionerInputs.size());
+		if (!tokenValidationCache.isValid(token)) {
+			throw new InvalidTokenException("You are not allowed to access this resource");
+		}
+		List<PensionBatchResult> results = processPensionService.getPensionDetailsBatch(token, pensionerInputs);
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_SUCCESS, HttpStatus.OK.value());
+		log.info("END - processPensionBatch()");
+		return new ResponseEntity<>(results, HttpStatus.OK);
+	}
+
+	/**
+	 * @URL: http://localhost:8082/pensions?pensionType=self&bankType=public&bankName=SBI&after=123456789011&size=100
+	 * @param pensionType optional pension type filter
+	 * @param bankType    optional bank type filter
+	 * @param bankName    optional bank name filter
+	 * @param after       next of the previous page, absent for the first page
+	 * @param size        maximum number of results
+	 * @return stored pension amounts in aadhaar number order, based on access token.
+	 */
+	@GetMapping("/pensions")
+	public ResponseEntity<PensionResultPage> getPensions(@RequestHeader(name = "Authorization") String token,
+			@RequestParam(required = false) String pensionType, @RequestParam(required = false) String bankType,
+			@RequestParam(required = false) String bankName, @RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "100") int size)
+	{
+		if (!tokenValidationCache.isValid(token)) {
+			throw new InvalidTokenException("You are not allowed to access this resource");
+		}
+		PensionResultPage page = processPensionService.getPensionResults(pensionType, bankType, bankName, after, size);
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_SUCCESS, HttpStatus.OK.value());
+		return new ResponseEntity<>(page, HttpStatus.OK);
+	}
+
+	/**
+	 * Called by other instances for the aadhaar numbers this instance owns, only
+	 * with the secret shared by the instances
+	 *
+	 * @URL: http://localhost:8082/internal/pensionerDetail/123456789011
+	 * @param aadhaarNumber .
+	 * @return pensioner details cached by this instance, based on peer secret and access token.
+	 */
+	@GetMapping("/internal/pensionerDetail/{aadhaarNumber}")
+	public ResponseEntity<PeerPensionerDetail> getOwnedPensionerDetail(
+			@RequestHeader(name = PeerPensionClient.PEER_SECRET_HEADER, required = false) String peerSecret,
+			@RequestHeader(name = "Authorization") String token, @PathVariable String aadhaarNumber)
+	{
+		if (!cacheOwnership.isPeer(peerSecret)) {
+			throw new InvalidTokenException("You are not allowed to access this resource");
+		}
+		if (!AADHAAR_NUMBER.matcher(aadhaarNumber).matches()) {
+			throw new NotFoundException("Aadhaar Number is in invalid format");
+		}
+		if (!tokenValidationCache.isValid(token)) {
+			throw new InvalidTokenException("You are not allowed to access this resource");
+		}
+		return new ResponseEntity<>(PeerPensionerDetail.of(pensionerDetailCache.getOwned(aadhaarNumber)),
+				HttpStatus.OK);
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.cts.processPension.exception;
+
+/**
+ * This exception is thrown when a batch request holds more pensioners than
+ * allowed
+ *
+ */
+public class BatchTooLargeException extends RuntimeException {
+	private static final long serialVersionUID = -3872611960915024417L;
+
+	public BatchTooLargeException(String message) {
+		super(message);
+	}
+
+}
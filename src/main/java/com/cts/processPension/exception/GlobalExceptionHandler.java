@@ -9,6 +9,7 @@ import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,6 +20,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import com.cts.processPension.metrics.PensionMetrics;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -32,10 +34,14 @@ import lombok.extern.slf4j.Slf4j;
  */
 @RestControllerAdvice
 @Slf4j
+@Profile("!reactive")
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 	@Autowired
 	private ObjectMapper objectMapper;
 
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
 	@PostConstruct
 	public void setUp() {
 		objectMapper.registerModule(new JavaTimeModule());
@@ -60,6 +66,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		// Add errors to the response map
 		response.setFieldErrors(errors);
 		log.error(errors.toString());
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_INVALID_INPUT, status.value());
 		return new ResponseEntity<>(response, headers, status);
 	}
 
@@ -74,6 +81,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 	public ResponseEntity<ErrorResponse> handleFeignStatusException(FeignException exception,
 			HttpServletResponse response) {
 		log.error("Handling Feign Client in Process Pension microservice...");
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_REMOTE_ERROR, exception.status());
 		log.debug("Message: {}", exception.getMessage());
 		ErrorResponse errorResponse;
 		log.debug("UTF-8 Message: {}", exception.contentUTF8());
@@ -103,6 +111,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 	public ResponseEntity<ErrorResponse> handleNotFoundException(NotFoundException exception,
 			HttpServletResponse response) {
 		log.error("Handling Details mismatch exception in Process Pension microservice");
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_NOT_FOUND, HttpStatus.BAD_REQUEST.value());
 		ErrorResponse errorResponse = new ErrorResponse();
 		errorResponse.setMessage(exception.getMessage());
 		errorResponse.setTimestamp(LocalDateTime.now());
@@ -121,6 +130,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 	public ResponseEntity<ErrorResponse> handleInvalidTokenException(InvalidTokenException exception,
 			HttpServletResponse response) {
 		log.error("Handling Invalid Token exception in Process Pension microservice");
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_INVALID_TOKEN, HttpStatus.FORBIDDEN.value());
 		ErrorResponse errorResponse = new ErrorResponse();
 		errorResponse.setMessage(exception.getMessage());
 		errorResponse.setTimestamp(LocalDateTime.now());
@@ -128,4 +138,81 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 		return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
 	}
 
+	/**
+	 * This method will handle ServiceTimeoutException
+	 * 
+	 * @param exception
+	 * @param response
+	 * @return ErrorResponse
+	 */
+	@ExceptionHandler(ServiceTimeoutException.class)
+	public ResponseEntity<ErrorResponse> handleServiceTimeoutException(ServiceTimeoutException exception,
+			HttpServletResponse response) {
+		log.error("Handling Service Timeout exception in Process Pension microservice");
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_TIMEOUT, HttpStatus.GATEWAY_TIMEOUT.value());
+		ErrorResponse errorResponse = new ErrorResponse();
+		errorResponse.setMessage(exception.getMessage());
+		errorResponse.setTimestamp(LocalDateTime.now());
+		errorResponse.setFieldErrors(Collections.singletonList(exception.getMessage()));
+		return new ResponseEntity<>(errorResponse, HttpStatus.GATEWAY_TIMEOUT);
+	}
+
+	/**
+	 * This method will handle ServiceUnavailableException
+	 * 
+	 * @param exception
+	 * @param response
+	 * @return ErrorResponse
+	 */
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException exception,
+			HttpServletResponse response) {
+		log.error("Handling Service Unavailable exception in Process Pension microservice");
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE.value());
+		ErrorResponse errorResponse = new ErrorResponse();
+		errorResponse.setMessage(exception.getMessage());
+		errorResponse.setTimestamp(LocalDateTime.now());
+		errorResponse.setFieldErrors(Collections.singletonList(exception.getMessage()));
+		return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+
+	/**
+	 * This method will handle BatchTooLargeException
+	 * 
+	 * @param exception
+	 * @param response
+	 * @return ErrorResponse
+	 */
+	@ExceptionHandler(BatchTooLargeException.class)
+	public ResponseEntity<ErrorResponse> handleBatchTooLargeException(BatchTooLargeException exception,
+			HttpServletResponse response) {
+		log.error("Handling Batch Too Large exception in Process Pension microservice");
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_INVALID_INPUT, HttpStatus.PAYLOAD_TOO_LARGE.value());
+		ErrorResponse errorResponse = new ErrorResponse();
+		errorResponse.setMessage(exception.getMessage());
+		errorResponse.setTimestamp(LocalDateTime.now());
+		errorResponse.setFieldErrors(Collections.singletonList(exception.getMessage()));
+		return new ResponseEntity<>(errorResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+	}
+
+	/**
+	 * This method will handle TooManyRequestsException
+	 * 
+	 * @param exception
+	 * @param response
+	 * @return ErrorResponse
+	 */
+	@ExceptionHandler(TooManyRequestsException.class)
+	public ResponseEntity<ErrorResponse> handleTooManyRequestsException(TooManyRequestsException exception,
+			HttpServletResponse response) {
+		log.warn("Handling Too Many Requests exception in Process Pension microservice");
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS.value());
+		ErrorResponse errorResponse = new ErrorResponse();
+		errorResponse.setMessage(exception.getMessage());
+		errorResponse.setTimestamp(LocalDateTime.now());
+		errorResponse.setFieldErrors(Collections.singletonList(exception.getMessage()));
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfter())).body(errorResponse);
+	}
+
 }
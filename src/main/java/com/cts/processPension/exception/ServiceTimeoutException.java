@@ -0,0 +1,14 @@
+package com.cts.processPension.exception;
+
+/**
+ * This exception is thrown when the other micro-services do not answer in time
+ *
+ */
+public class ServiceTimeoutException extends RuntimeException {
+	private static final long serialVersionUID = 4817736251952310617L;
+
+	public ServiceTimeoutException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,15 @@
+package com.cts.processPension.exception;
+
+/**
+ * This exception is thrown when another micro-service can not be called and
+ * there is no local data to fall back to
+ *
+ */
+public class ServiceUnavailableException extends RuntimeException {
+	private static final long serialVersionUID = -2294175034655839014L;
+
+	public ServiceUnavailableException(String message) {
+		super(message);
+	}
+
+}
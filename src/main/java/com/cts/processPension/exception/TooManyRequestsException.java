@@ -0,0 +1,24 @@
+package com.cts.processPension.exception;
+
+import lombok.Getter;
+
+/**
+ * This exception is thrown when a token or client sends requests faster than
+ * its rate limit, or when too many requests are already being processed
+ *
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+	private static final long serialVersionUID = 4719215603412764583L;
+
+	/**
+	 * Seconds after which the request may be retried
+	 */
+	private final long retryAfter;
+
+	public TooManyRequestsException(String message, long retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+}
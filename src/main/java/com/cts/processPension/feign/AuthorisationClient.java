@@ -7,7 +7,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
  * Feign client to connect with authorization micro-service for token validation
  *
  */
-@FeignClient("AUTH-SERVICE")
+@FeignClient(name = "AUTH-SERVICE", configuration = PooledClientConfiguration.class)
 public interface AuthorisationClient {
 	
 	/**
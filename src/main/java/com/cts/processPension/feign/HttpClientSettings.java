@@ -0,0 +1,66 @@
+package com.cts.processPension.feign;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * HTTP transport settings of one client, bound from pension.http.default and
+ * then from pension.http.<client name in lower case>
+ *
+ */
+@Getter
+@Setter
+public class HttpClientSettings {
+
+	/**
+	 * Pooled connections to the service, over all of its instances
+	 */
+	private int maxConnections = 50;
+
+	/**
+	 * Pooled connections to one instance of the service
+	 */
+	private int maxConnectionsPerRoute = 50;
+
+	/**
+	 * How long an idle connection is kept open when the server does not say
+	 */
+	private Duration keepAlive = Duration.ofSeconds(30);
+
+	/**
+	 * Maximum lifetime of a connection, so instances that leave are let go of
+	 */
+	private Duration timeToLive = Duration.ofMinutes(5);
+
+	private Duration connectTimeout = Duration.ofSeconds(2);
+
+	private Duration readTimeout = Duration.ofSeconds(5);
+
+	/**
+	 * How long a request waits for a pooled connection
+	 */
+	private Duration acquireTimeout = Duration.ofSeconds(1);
+
+	/**
+	 * Ask for gzip compressed responses
+	 */
+	private boolean compression;
+
+	/**
+	 * @param clientName client name in lower case
+	 * @return settings of the client, the defaults overridden by its own
+	 */
+	public static HttpClientSettings of(Environment environment, String clientName) {
+		Binder binder = Binder.get(environment);
+		HttpClientSettings settings = new HttpClientSettings();
+		binder.bind("pension.http.default", Bindable.ofInstance(settings));
+		binder.bind("pension.http." + clientName, Bindable.ofInstance(settings));
+		return settings;
+	}
+}
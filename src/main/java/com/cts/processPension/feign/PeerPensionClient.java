@@ -0,0 +1,35 @@
+package com.cts.processPension.feign;
+
+import java.net.URI;
+
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+
+import com.cts.processPension.model.PeerPensionerDetail;
+
+/**
+ * Feign client to connect with another instance of this micro-service, the
+ * instance being chosen by the caller rather than by the load balancer
+ *
+ */
+@FeignClient(name = "PROCESS-PENSION-PEER", url = "${pension.ownership.peer-url:http://localhost}", configuration = PooledClientConfiguration.class)
+public interface PeerPensionClient {
+
+	/**
+	 * Header carrying the secret shared by the instances of this micro-service
+	 */
+	public static final String PEER_SECRET_HEADER = "X-Pension-Peer-Secret";
+
+	/**
+	 * @param owner      base URI of the instance owning the aadhaar number
+	 * @param peerSecret secret shared by the instances
+	 * @param token      access token of the request being served
+	 * @return pensioner details held by the owner
+	 */
+	@GetMapping("/internal/pensionerDetail/{aadhaarNumber}")
+	public PeerPensionerDetail getPensionerDetail(URI owner,
+			@RequestHeader(name = PEER_SECRET_HEADER) String peerSecret,
+			@RequestHeader(name = "Authorization") String token, @PathVariable String aadhaarNumber);
+}
@@ -10,7 +10,7 @@ import com.cts.processPension.model.PensionerDetail;
  * Feign client to connect with Pension details micro-service
  *
  */
-@FeignClient("PENSIONER-DETAIL-SERVICE")
+@FeignClient(name = "PENSIONER-DETAIL-SERVICE", configuration = PooledClientConfiguration.class)
 public interface PensionerDetailsClient {
 	@GetMapping("/pensionerDetailByAadhaar/{aadhaarNumber}")
 	public PensionerDetail getPensionerDetailByAadhaar(@PathVariable String aadhaarNumber);
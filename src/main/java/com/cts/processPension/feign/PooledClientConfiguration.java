@@ -0,0 +1,135 @@
+package com.cts.processPension.feign;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerProperties;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import feign.Client;
+import feign.Request;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Feign client configuration giving each client its own pool of keep-alive
+ * connections, tuned by {@link HttpClientSettings}. Created once per client in
+ * the Feign child context, so it must stay out of the component scan.
+ *
+ */
+public class PooledClientConfiguration {
+
+	@Value("${feign.client.name}")
+	private String clientName;
+
+	@Bean
+	public HttpClientSettings httpClientSettings(Environment environment) {
+		return HttpClientSettings.of(environment, metricName());
+	}
+
+	@Bean
+	public TimedConnectionManager pooledConnectionManager(HttpClientSettings settings,
+			ObjectProvider<MeterRegistry> meterRegistryProvider) {
+		MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+		Timer acquireTimer = Timer.builder("pension.http.connection.acquire")
+				.description("Time spent waiting for a pooled connection").tag("client", metricName())
+				.register(meterRegistry);
+		TimedConnectionManager connectionManager = createConnectionManager(settings, acquireTimer);
+		new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, metricName()).bindTo(meterRegistry);
+		return connectionManager;
+	}
+
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient pooledHttpClient(HttpClientSettings settings, TimedConnectionManager connectionManager) {
+		return createHttpClient(settings, connectionManager);
+	}
+
+	@Bean
+	public Request.Options options(HttpClientSettings settings) {
+		return new Request.Options(settings.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+				settings.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS, true);
+	}
+
+	@Bean
+	public Client feignClient(CloseableHttpClient pooledHttpClient, LoadBalancerClient loadBalancerClient,
+			LoadBalancerProperties loadBalancerProperties, LoadBalancerClientFactory loadBalancerClientFactory) {
+		return new FeignBlockingLoadBalancerClient(new ApacheHttpClient(pooledHttpClient), loadBalancerClient,
+				loadBalancerProperties, loadBalancerClientFactory);
+	}
+
+	public static TimedConnectionManager createConnectionManager(HttpClientSettings settings, Timer acquireTimer) {
+		TimedConnectionManager connectionManager = new TimedConnectionManager(
+				RegistryBuilder.<ConnectionSocketFactory>create()
+						.register("http", PlainConnectionSocketFactory.getSocketFactory())
+						.register("https", SSLConnectionSocketFactory.getSocketFactory()).build(),
+				settings.getTimeToLive().toMillis(), acquireTimer);
+		connectionManager.setMaxTotal(settings.getMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(settings.getMaxConnectionsPerRoute());
+		// a connection idle for a while may have been closed by the server
+		connectionManager.setValidateAfterInactivity(2000);
+		return connectionManager;
+	}
+
+	public static CloseableHttpClient createHttpClient(HttpClientSettings settings,
+			TimedConnectionManager connectionManager) {
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout((int) settings.getConnectTimeout().toMillis())
+				.setSocketTimeout((int) settings.getReadTimeout().toMillis())
+				.setConnectionRequestTimeout((int) settings.getAcquireTimeout().toMillis()).build();
+		HttpClientBuilder builder = HttpClientBuilder.create().setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig).setKeepAliveStrategy(keepAliveStrategy(settings))
+				.evictExpiredConnections().evictIdleConnections(settings.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS)
+				.disableCookieManagement().disableAuthCaching().disableRedirectHandling();
+		if (!settings.isCompression()) {
+			builder.disableContentCompression();
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Keep a connection for the time the server allows in its Keep-Alive header,
+	 * or for the configured keep-alive
+	 */
+	private static ConnectionKeepAliveStrategy keepAliveStrategy(HttpClientSettings settings) {
+		long keepAliveMillis = settings.getKeepAlive().toMillis();
+		return (response, context) -> {
+			HeaderElementIterator elements = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+			while (elements.hasNext()) {
+				HeaderElement element = elements.nextElement();
+				if ("timeout".equalsIgnoreCase(element.getName()) && element.getValue() != null) {
+					try {
+						return Math.min(Long.parseLong(element.getValue()) * 1000, keepAliveMillis);
+					} catch (NumberFormatException e) {
+						// ignore a malformed timeout
+					}
+				}
+			}
+			return keepAliveMillis;
+		};
+	}
+
+	private String metricName() {
+		return clientName.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,53 @@
+package com.cts.processPension.feign;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Connection pool that times how long requests wait to lease a connection
+ *
+ */
+public class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+
+	private final Timer acquireTimer;
+
+	public TimedConnectionManager(Registry<ConnectionSocketFactory> socketFactories, long timeToLive,
+			Timer acquireTimer) {
+		super(socketFactories, null, null, SystemDefaultDnsResolver.INSTANCE, timeToLive, TimeUnit.MILLISECONDS);
+		this.acquireTimer = acquireTimer;
+	}
+
+	@Override
+	public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+		ConnectionRequest request = super.requestConnection(route, state);
+		return new ConnectionRequest() {
+
+			@Override
+			public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+					throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+				long start = System.nanoTime();
+				try {
+					return request.get(timeout, timeUnit);
+				} finally {
+					acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			}
+
+			@Override
+			public boolean cancel() {
+				return request.cancel();
+			}
+		};
+	}
+}
@@ -0,0 +1,115 @@
+package com.cts.processPension.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Meters of the process pension hot path. Every stage of a request is timed
+ * under pension.stage (tagged with the stage) and every request is counted
+ * under pension.requests (tagged with its outcome and HTTP status). Requests
+ * turned away by admission control are also counted under
+ * pension.rate-limit.rejected (tagged with the limit hit). Percentiles
+ * and histograms are configured under management.metrics.distribution.
+ *
+ */
+@Component
+public class PensionMetrics {
+
+	public static final String STAGE_AUTHORISATION = "authorisation";
+	public static final String STAGE_PENSIONER_DETAIL = "pensioner-detail";
+	public static final String STAGE_PENSIONER_STORE = "pensioner-store";
+	public static final String STAGE_PENSION_AMOUNT = "pension-amount";
+	public static final String STAGE_SERIALIZATION = "serialization";
+
+	public static final String OUTCOME_SUCCESS = "success";
+	public static final String OUTCOME_INVALID_INPUT = "invalid-input";
+	public static final String OUTCOME_INVALID_TOKEN = "invalid-token";
+	public static final String OUTCOME_NOT_FOUND = "not-found";
+	public static final String OUTCOME_REMOTE_ERROR = "remote-error";
+	public static final String OUTCOME_TIMEOUT = "timeout";
+	public static final String OUTCOME_UNAVAILABLE = "unavailable";
+	public static final String OUTCOME_RATE_LIMITED = "rate-limited";
+
+	public static final String LIMIT_TOKEN = "token";
+	public static final String LIMIT_CLIENT = "client";
+	public static final String LIMIT_IN_FLIGHT = "in-flight";
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	private MeterRegistry registry;
+
+	private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void setUp() {
+		registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+	}
+
+	/**
+	 * Time one stage of a request
+	 *
+	 * @param stage one of the STAGE constants
+	 * @param call  work done by the stage
+	 * @return result of the call
+	 */
+	public <T> T time(String stage, Supplier<T> call) {
+		return stageTimer(stage).record(call);
+	}
+
+	/**
+	 * Time one stage of a request
+	 *
+	 * @param stage one of the STAGE constants
+	 * @param call  work done by the stage
+	 */
+	public void time(String stage, Runnable call) {
+		stageTimer(stage).record(call);
+	}
+
+	/**
+	 * Record the duration of a stage timed by the caller
+	 *
+	 * @param stage one of the STAGE constants
+	 * @param nanos duration in nanoseconds
+	 */
+	public void record(String stage, long nanos) {
+		stageTimer(stage).record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Count a finished request
+	 *
+	 * @param outcome one of the OUTCOME constants
+	 * @param status  HTTP status returned, or the status returned by the remote
+	 *                service for remote errors
+	 */
+	public void outcome(String outcome, int status) {
+		registry.counter("pension.requests", "outcome", outcome, "status", String.valueOf(status)).increment();
+	}
+
+	/**
+	 * Count a request rejected before any work was done for it
+	 *
+	 * @param limit one of the LIMIT constants
+	 */
+	public void rejected(String limit) {
+		registry.counter("pension.rate-limit.rejected", "limit", limit).increment();
+	}
+
+	private Timer stageTimer(String stage) {
+		return stageTimers.computeIfAbsent(stage, key -> registry.timer("pension.stage", "stage", key));
+	}
+}
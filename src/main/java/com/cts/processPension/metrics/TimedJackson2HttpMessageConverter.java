@@ -0,0 +1,56 @@
+package com.cts.processPension.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON converter that times response serialization as the serialization
+ * stage. The response is serialized into a buffer so the stage does not
+ * include writing to a slow client, the buffer is then copied to the response
+ * with its length.
+ *
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+	private final PensionMetrics pensionMetrics;
+
+	public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, PensionMetrics pensionMetrics) {
+		super(objectMapper);
+		this.pensionMetrics = pensionMetrics;
+	}
+
+	@Override
+	protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+		long start = System.nanoTime();
+		try {
+			super.writeInternal(object, type, new HttpOutputMessage() {
+				@Override
+				public OutputStream getBody() {
+					return buffer;
+				}
+
+				@Override
+				public HttpHeaders getHeaders() {
+					return outputMessage.getHeaders();
+				}
+			});
+		} finally {
+			pensionMetrics.record(PensionMetrics.STAGE_SERIALIZATION, System.nanoTime() - start);
+		}
+		if (outputMessage.getHeaders().getContentLength() < 0) {
+			outputMessage.getHeaders().setContentLength(buffer.size());
+		}
+		buffer.writeTo(outputMessage.getBody());
+	}
+}
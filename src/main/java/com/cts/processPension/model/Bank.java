@@ -1,6 +1,5 @@
 package com.cts.processPension.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
@@ -8,21 +7,81 @@ import lombok.ToString;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+import com.cts.processPension.rule.RuleCodes;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSetter;
 
 /**
  * Model class for bank details
  *
  */
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @ToString
-public class Bank {
+public class Bank implements Persistable<Long> {
 	@Column
 	private String bankName;
 	@Id
 	private long accountNumber;
 	@Column
 	private String bankType;
-}
\ No newline at end of file
+
+	/**
+	 * Bank type resolved once for the pension rule table
+	 */
+	@Transient
+	@JsonIgnore
+	@ToString.Exclude
+	private int bankTypeCode = RuleCodes.UNKNOWN;
+
+	/**
+	 * Set once the row is known to exist, so saving a new bank persists it
+	 * without reading it first
+	 */
+	@Transient
+	@JsonIgnore
+	@ToString.Exclude
+	private boolean persisted;
+
+	public Bank(String bankName, long accountNumber, String bankType) {
+		this.bankName = bankName;
+		this.accountNumber = accountNumber;
+		setBankType(bankType);
+	}
+
+	@JsonSetter("bankType")
+	public void setBankType(String bankType) {
+		this.bankType = bankType;
+		this.bankTypeCode = RuleCodes.bankType(bankType);
+	}
+
+	@Override
+	@JsonIgnore
+	public Long getId() {
+		return accountNumber;
+	}
+
+	@Override
+	@JsonIgnore
+	public boolean isNew() {
+		return !persisted;
+	}
+
+	@PostPersist
+	public void markPersisted() {
+		persisted = true;
+	}
+
+	@PostLoad
+	void resolveCodes() {
+		bankTypeCode = RuleCodes.bankType(bankType);
+		persisted = true;
+	}
+}
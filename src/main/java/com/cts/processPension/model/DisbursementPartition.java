@@ -0,0 +1,72 @@
+package com.cts.processPension.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Checkpoint of one aadhaar number range of a monthly disbursement run: every
+ * pensioner of the range up to lastAadhaarNumber has its pension amount
+ * stored. The range is kept with the checkpoint, and the run processing it
+ * holds a claim on it until claimedUntil.
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_disbursement_partition_run_month", columnList = "runMonth"))
+public class DisbursementPartition {
+
+	// run month and partition index, e.g. 2026-10/3
+	@Id
+	private String id;
+
+	@Column
+	private String runMonth;
+
+	@Column
+	private int partitionIndex;
+
+	// lowest aadhaar number of the range
+	@Column
+	private String lowerBound;
+
+	// aadhaar number above the range, null for the last range
+	@Column
+	private String upperBound;
+
+	@Column
+	private String lastAadhaarNumber;
+
+	@Column
+	private long processed;
+
+	@Column
+	private boolean completed;
+
+	@Column
+	private Instant updatedAt;
+
+	@Column
+	private String claimedBy;
+
+	@Column
+	private Instant claimedUntil;
+
+	public DisbursementPartition(String runMonth, int partitionIndex, String lowerBound, String upperBound) {
+		this.id = runMonth + "/" + partitionIndex;
+		this.runMonth = runMonth;
+		this.partitionIndex = partitionIndex;
+		this.lowerBound = lowerBound;
+		this.upperBound = upperBound;
+	}
+}
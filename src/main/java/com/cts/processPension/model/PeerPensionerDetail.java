@@ -0,0 +1,65 @@
+package com.cts.processPension.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import com.cts.processPension.util.IsoDateSerializer;
+import com.cts.processPension.util.LocalDateDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Model class for the pensioner details an owner instance returns to another
+ * instance, only what the pension amount is calculated from plus how old the
+ * snapshot is
+ *
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+public class PeerPensionerDetail {
+
+	private String aadhaarNumber;
+	private String name;
+	@JsonSerialize(using = IsoDateSerializer.class)
+	@JsonDeserialize(using = LocalDateDeserializer.class)
+	private LocalDate dateOfBirth;
+	private String pan;
+	private double salary;
+	private double allowance;
+	private String pensionType;
+	private String bankType;
+	/**
+	 * When the owner last fetched the snapshot from the pensioner detail
+	 * micro-service
+	 */
+	private Instant fetchedAt;
+	/**
+	 * True when the owner could not call the pensioner detail micro-service
+	 */
+	private boolean stale;
+
+	public static PeerPensionerDetail of(PensionerDetail pensionerDetail) {
+		Bank bank = pensionerDetail.getBank();
+		return new PeerPensionerDetail(pensionerDetail.getAadhaarNumber(), pensionerDetail.getName(),
+				pensionerDetail.getDateOfBirth(), pensionerDetail.getPan(), pensionerDetail.getSalary(),
+				pensionerDetail.getAllowance(), pensionerDetail.getPensionType(),
+				bank == null ? null : bank.getBankType(), pensionerDetail.getFetchedAt(), pensionerDetail.isStale());
+	}
+
+	/**
+	 * @return pensioner details to calculate the pension amount with, without
+	 *         the account details the owner keeps to itself
+	 */
+	public PensionerDetail toPensionerDetail() {
+		PensionerDetail pensionerDetail = new PensionerDetail(name, aadhaarNumber, dateOfBirth, pan, salary, allowance,
+				pensionType, 0, new Bank(null, 0, bankType));
+		pensionerDetail.setFetchedAt(fetchedAt);
+		pensionerDetail.setStale(stale);
+		return pensionerDetail;
+	}
+}
@@ -31,4 +31,8 @@ public class PensionAmountDetail {
 
 	@Column
 	private Double totalAmount;
+
+	// hash of every input of the calculation, a different value means stale
+	@Column(length = 44)
+	private String fingerprint;
 }
@@ -0,0 +1,22 @@
+package com.cts.processPension.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Model class for the outcome of one pensioner in a batch request, holding
+ * either the pension details or the error message
+ *
+ */
+@AllArgsConstructor
+@Getter
+@JsonInclude(Include.NON_NULL)
+public class PensionBatchResult {
+
+	private String aadhaarNumber;
+	private PensionDetail pensionDetail;
+	private String errorMessage;
+}
@@ -1,8 +1,12 @@
 package com.cts.processPension.model;
 
-import java.util.Date;
+import java.time.LocalDate;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
+import com.cts.processPension.util.DisplayDateSerializer;
+import com.cts.processPension.util.LocalDateDeserializer;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,9 +20,20 @@ import lombok.Getter;
 public class PensionDetail {
 
 	private String name;
-	@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd/MM/yyyy")
-	private Date dateOfBirth;
+	@JsonSerialize(using = DisplayDateSerializer.class)
+	@JsonDeserialize(using = LocalDateDeserializer.class)
+	private LocalDate dateOfBirth;
 	private String pan;
 	private String pensionType;
 	private double pensionAmount;
+	/**
+	 * True when calculated from a possibly out of date pensioner snapshot, only
+	 * present in the response when true
+	 */
+	@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+	private boolean stale;
+
+	public PensionDetail(String name, LocalDate dateOfBirth, String pan, String pensionType, double pensionAmount) {
+		this(name, dateOfBirth, pan, pensionType, pensionAmount, false);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.cts.processPension.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Stored pension amount of a pensioner with the fields reports filter on,
+ * read as a projection without loading the entities
+ *
+ */
+@AllArgsConstructor
+@Getter
+public class PensionResult {
+
+	private String aadhaarNumber;
+	private String name;
+	private String pensionType;
+	private String bankName;
+	private String bankType;
+	private Double pensionAmount;
+	private Double bankServiceCharge;
+	private Double totalAmount;
+}
@@ -0,0 +1,23 @@
+package com.cts.processPension.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of pension results in aadhaar number order. The next page starts
+ * after the aadhaar number in next, which is absent on the last page.
+ *
+ */
+@AllArgsConstructor
+@Getter
+@JsonInclude(Include.NON_NULL)
+public class PensionResultPage {
+
+	private List<PensionResult> results;
+	private String next;
+}
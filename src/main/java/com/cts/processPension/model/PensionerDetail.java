@@ -1,10 +1,21 @@
 package com.cts.processPension.model;
 
-import java.util.Date;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.springframework.data.domain.Persistable;
+
+import com.cts.processPension.rule.RuleCodes;
+import com.cts.processPension.util.IsoDateSerializer;
+import com.cts.processPension.util.LocalDateDeserializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
 import javax.persistence.*;
@@ -15,11 +26,13 @@ import javax.validation.constraints.NotNull;
  *
  */
 @Getter
-@AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Table(indexes = { @Index(name = "idx_pensioner_detail_pan", columnList = "pan"),
+		@Index(name = "idx_pensioner_detail_account_number", columnList = "accountNumber"),
+		@Index(name = "idx_pensioner_detail_pension_type", columnList = "pensionType") })
 @ToString
-public class PensionerDetail {
+public class PensionerDetail implements Persistable<String> {
 	@Column
 	private String name;
 
@@ -28,7 +41,9 @@ public class PensionerDetail {
 	private String aadhaarNumber;
 
 	@Column
-	private Date dateOfBirth;
+	@JsonSerialize(using = IsoDateSerializer.class)
+	@JsonDeserialize(using = LocalDateDeserializer.class)
+	private LocalDate dateOfBirth;
 
 	@Column
 	private String pan;
@@ -42,9 +57,87 @@ public class PensionerDetail {
 	@Column
 	private String pensionType;
 
+	/**
+	 * Pension type resolved once for the pension rule table
+	 */
+	@Transient
+	@JsonIgnore
+	@ToString.Exclude
+	private int pensionTypeCode = RuleCodes.UNKNOWN;
+
 	@Column
 	private long accountNumber;
 
 	@OneToOne(cascade = CascadeType.ALL)
 	private Bank bank;
+
+	/**
+	 * When this snapshot was last fetched from the pensioner detail micro-service
+	 */
+	@Column
+	@Setter
+	@JsonIgnore
+	private Instant fetchedAt;
+
+	/**
+	 * Set on a snapshot served because the pensioner detail micro-service could
+	 * not be called, it may be out of date
+	 */
+	@Transient
+	@Setter
+	@JsonIgnore
+	private boolean stale;
+
+	/**
+	 * Set once the row is known to exist, so saving a new snapshot persists it
+	 * without reading it first. Snapshots from the pensioner detail
+	 * micro-service may already be stored and are written with
+	 * {@link com.cts.processPension.repository.PensionerDetailsRepository#upsertAll}.
+	 */
+	@Transient
+	@JsonIgnore
+	@ToString.Exclude
+	private boolean persisted;
+
+	public PensionerDetail(String name, String aadhaarNumber, LocalDate dateOfBirth, String pan, double salary,
+			double allowance, String pensionType, long accountNumber, Bank bank) {
+		this.name = name;
+		this.aadhaarNumber = aadhaarNumber;
+		this.dateOfBirth = dateOfBirth;
+		this.pan = pan;
+		this.salary = salary;
+		this.allowance = allowance;
+		this.accountNumber = accountNumber;
+		this.bank = bank;
+		setPensionType(pensionType);
+	}
+
+	@JsonSetter("pensionType")
+	public void setPensionType(String pensionType) {
+		this.pensionType = pensionType;
+		this.pensionTypeCode = RuleCodes.pensionType(pensionType);
+	}
+
+	@Override
+	@JsonIgnore
+	public String getId() {
+		return aadhaarNumber;
+	}
+
+	@Override
+	@JsonIgnore
+	public boolean isNew() {
+		return !persisted;
+	}
+
+	@PostPersist
+	public void markPersisted() {
+		persisted = true;
+	}
+
+	@PostLoad
+	void resolveCodes() {
+		pensionTypeCode = RuleCodes.pensionType(pensionType);
+		persisted = true;
+	}
 }
\ No newline at end of file
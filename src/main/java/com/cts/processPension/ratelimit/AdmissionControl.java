@@ -0,0 +1,189 @@
+package com.cts.processPension.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.cts.processPension.exception.TooManyRequestsException;
+import com.cts.processPension.metrics.PensionMetrics;
+
+/**
+ * Admission control of the pension endpoints, run before the controller so a
+ * rejected request costs neither a call to the authorization micro-service nor
+ * a request thread beyond this check. A request is rejected with 429 when
+ * <ul>
+ * <li>more than max-in-flight requests are already being processed,</li>
+ * <li>its bearer token is over its token bucket, or</li>
+ * <li>its client address is over its token bucket.</li>
+ * </ul>
+ * A batch request costs one token per pensioner, taken by the controller once
+ * the batch is read. The client address is the remote address, or the last
+ * address of client.header when the service runs behind a proxy setting it.
+ * The buckets are {@link StripedTokenBuckets}, no lock is taken on the way.
+ * Disabled unless pension.rate-limit.enabled is set. The reactive stack has
+ * the same limits in {@link ReactiveAdmissionControl}.
+ *
+ */
+@Component
+@Profile("!reactive")
+public class AdmissionControl implements HandlerInterceptor, WebMvcConfigurer {
+
+	private static final String ADMITTED = AdmissionControl.class.getName() + ".admitted";
+
+	private static final String BATCH_PATH = "/processPension/batch";
+
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
+	@Value("${pension.rate-limit.enabled:false}")
+	private boolean enabled;
+
+	@Value("${pension.rate-limit.token.rate:20}")
+	private double tokenRate;
+
+	@Value("${pension.rate-limit.token.burst:40}")
+	private int tokenBurst;
+
+	@Value("${pension.rate-limit.client.rate:50}")
+	private double clientRate;
+
+	@Value("${pension.rate-limit.client.burst:100}")
+	private int clientBurst;
+
+	/**
+	 * Header holding the client address, e.g. X-Forwarded-For, the remote
+	 * address is used when empty
+	 */
+	@Value("${pension.rate-limit.client.header:}")
+	private String clientHeader;
+
+	@Value("${pension.rate-limit.stripes:16384}")
+	private int stripes;
+
+	/**
+	 * Requests processed at once, 0 for no limit
+	 */
+	@Value("${pension.rate-limit.max-in-flight:200}")
+	private int maxInFlight;
+
+	private StripedTokenBuckets tokenBuckets;
+
+	private StripedTokenBuckets clientBuckets;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	@PostConstruct
+	public void setUp() {
+		tokenBuckets = new StripedTokenBuckets(tokenRate, tokenBurst, stripes);
+		clientBuckets = new StripedTokenBuckets(clientRate, clientBurst, stripes);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		if (enabled) {
+			registry.addInterceptor(this).addPathPatterns("/processPension", BATCH_PATH, "/pensions");
+		}
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		// a request rejected for the in-flight limit takes no tokens
+		if (maxInFlight > 0 && inFlight.incrementAndGet() > maxInFlight) {
+			inFlight.decrementAndGet();
+			pensionMetrics.rejected(PensionMetrics.LIMIT_IN_FLIGHT);
+			throw new TooManyRequestsException("Too many requests are being processed, retry later", 1);
+		}
+		try {
+			// batch requests are charged per pensioner by the controller
+			if (!BATCH_PATH.equals(UrlPathHelper.defaultInstance.getPathWithinApplication(request))) {
+				takeTokens(request, 1);
+			}
+		} catch (TooManyRequestsException e) {
+			if (maxInFlight > 0) {
+				inFlight.decrementAndGet();
+			}
+			throw e;
+		}
+		if (maxInFlight > 0) {
+			request.setAttribute(ADMITTED, Boolean.TRUE);
+		}
+		return true;
+	}
+
+	/**
+	 * Charge a batch request one token per pensioner
+	 *
+	 * @throws TooManyRequestsException if the token or the client address is
+	 *                                  over its bucket
+	 */
+	public void admitBatch(HttpServletRequest request, int pensioners) {
+		if (enabled) {
+			takeTokens(request, Math.max(1, pensioners));
+		}
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		if (request.getAttribute(ADMITTED) != null) {
+			request.removeAttribute(ADMITTED);
+			inFlight.decrementAndGet();
+		}
+	}
+
+	/**
+	 * @return requests currently admitted and not yet completed
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	private void takeTokens(HttpServletRequest request, int tokens) {
+		String token = request.getHeader(HttpHeaders.AUTHORIZATION);
+		if (token != null) {
+			admit(tokenBuckets.tryAcquire(token, tokens), PensionMetrics.LIMIT_TOKEN);
+		}
+		admit(clientBuckets.tryAcquire(clientAddress(request), tokens), PensionMetrics.LIMIT_CLIENT);
+	}
+
+	/**
+	 * @return the last address of the client header if configured and present,
+	 *         else the remote address
+	 */
+	private String clientAddress(HttpServletRequest request) {
+		String forwarded = clientHeader.isEmpty() ? null : request.getHeader(clientHeader);
+		if (forwarded == null || forwarded.isBlank()) {
+			return request.getRemoteAddr();
+		}
+		return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+	}
+
+	private void admit(long waitNanos, String limit) {
+		if (waitNanos > 0) {
+			pensionMetrics.rejected(limit);
+			throw rateLimitExceeded(waitNanos);
+		}
+	}
+
+	/**
+	 * @return rejection of a request whose bucket has a token again in waitNanos,
+	 *         retried after that many whole seconds rounded up
+	 */
+	static TooManyRequestsException rateLimitExceeded(long waitNanos) {
+		long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		return new TooManyRequestsException("Rate limit exceeded, retry after " + retryAfter + " s", retryAfter);
+	}
+}
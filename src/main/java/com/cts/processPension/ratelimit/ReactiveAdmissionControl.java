@@ -0,0 +1,173 @@
+package com.cts.processPension.ratelimit;
+
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import com.cts.processPension.exception.ErrorResponse;
+import com.cts.processPension.exception.TooManyRequestsException;
+import com.cts.processPension.metrics.PensionMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Admission control of /processPension on the reactive stack, with the limits
+ * and settings of {@link AdmissionControl}: a request is rejected with 429
+ * before the handler runs when more than max-in-flight requests are being
+ * processed, or when its bearer token or client address is over its token
+ * bucket. Disabled unless pension.rate-limit.enabled is set.
+ *
+ */
+@Component
+@Profile("reactive")
+public class ReactiveAdmissionControl implements WebFilter {
+
+	private static final String PATH = "/processPension";
+
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${pension.rate-limit.enabled:false}")
+	private boolean enabled;
+
+	@Value("${pension.rate-limit.token.rate:20}")
+	private double tokenRate;
+
+	@Value("${pension.rate-limit.token.burst:40}")
+	private int tokenBurst;
+
+	@Value("${pension.rate-limit.client.rate:50}")
+	private double clientRate;
+
+	@Value("${pension.rate-limit.client.burst:100}")
+	private int clientBurst;
+
+	@Value("${pension.rate-limit.client.header:}")
+	private String clientHeader;
+
+	@Value("${pension.rate-limit.stripes:16384}")
+	private int stripes;
+
+	@Value("${pension.rate-limit.max-in-flight:200}")
+	private int maxInFlight;
+
+	private StripedTokenBuckets tokenBuckets;
+
+	private StripedTokenBuckets clientBuckets;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	@PostConstruct
+	public void setUp() {
+		tokenBuckets = new StripedTokenBuckets(tokenRate, tokenBurst, stripes);
+		clientBuckets = new StripedTokenBuckets(clientRate, clientBurst, stripes);
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+		if (!enabled || !PATH.equals(exchange.getRequest().getPath().pathWithinApplication().value())) {
+			return chain.filter(exchange);
+		}
+		// a request rejected for the in-flight limit takes no tokens
+		if (maxInFlight > 0 && inFlight.incrementAndGet() > maxInFlight) {
+			inFlight.decrementAndGet();
+			pensionMetrics.rejected(PensionMetrics.LIMIT_IN_FLIGHT);
+			return reject(exchange,
+					new TooManyRequestsException("Too many requests are being processed, retry later", 1));
+		}
+		TooManyRequestsException rejection = takeToken(exchange.getRequest());
+		if (rejection != null) {
+			if (maxInFlight > 0) {
+				inFlight.decrementAndGet();
+			}
+			return reject(exchange, rejection);
+		}
+		if (maxInFlight == 0) {
+			return chain.filter(exchange);
+		}
+		return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+	}
+
+	/**
+	 * @return requests currently admitted and not yet completed
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * @return the rejection if the token or the client address is over its
+	 *         bucket, else null
+	 */
+	private TooManyRequestsException takeToken(ServerHttpRequest request) {
+		String token = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+		if (token != null) {
+			long waitNanos = tokenBuckets.tryAcquire(token);
+			if (waitNanos > 0) {
+				pensionMetrics.rejected(PensionMetrics.LIMIT_TOKEN);
+				return AdmissionControl.rateLimitExceeded(waitNanos);
+			}
+		}
+		long waitNanos = clientBuckets.tryAcquire(clientAddress(request));
+		if (waitNanos > 0) {
+			pensionMetrics.rejected(PensionMetrics.LIMIT_CLIENT);
+			return AdmissionControl.rateLimitExceeded(waitNanos);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the last address of the client header if configured and present,
+	 *         else the remote address
+	 */
+	private String clientAddress(ServerHttpRequest request) {
+		String forwarded = clientHeader.isEmpty() ? null : request.getHeaders().getFirst(clientHeader);
+		if (forwarded == null || forwarded.isBlank()) {
+			InetSocketAddress remoteAddress = request.getRemoteAddress();
+			return remoteAddress == null ? "" : remoteAddress.getHostString();
+		}
+		return forwarded.substring(forwarded.lastIndexOf(',') + 1).trim();
+	}
+
+	/**
+	 * Same response as the global exception handler of the servlet stack
+	 */
+	private Mono<Void> reject(ServerWebExchange exchange, TooManyRequestsException exception) {
+		pensionMetrics.outcome(PensionMetrics.OUTCOME_RATE_LIMITED, HttpStatus.TOO_MANY_REQUESTS.value());
+		ErrorResponse errorResponse = new ErrorResponse();
+		errorResponse.setMessage(exception.getMessage());
+		errorResponse.setTimestamp(LocalDateTime.now());
+		errorResponse.setFieldErrors(Collections.singletonList(exception.getMessage()));
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+		response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfter()));
+		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		try {
+			byte[] body = objectMapper.writeValueAsBytes(errorResponse);
+			return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+		} catch (JsonProcessingException e) {
+			return Mono.error(e);
+		}
+	}
+}
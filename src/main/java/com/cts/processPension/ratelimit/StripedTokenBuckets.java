@@ -0,0 +1,103 @@
+package com.cts.processPension.ratelimit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token buckets for an unbounded set of keys held in a fixed array of stripes,
+ * the bucket of a key being the stripe its hash falls into. Keys are never
+ * retained, memory does not grow with the number of clients and rarely
+ * colliding keys share a bucket.
+ * <p>
+ * Every stripe holds a single long, the time at which its bucket will be full
+ * again (the generic cell rate algorithm), so taking a token is one
+ * compare-and-set without any lock. A bucket refills at rate tokens per second
+ * and holds at most burst tokens. Taking several tokens at once succeeds while
+ * the bucket holds one, the tokens it lacks are borrowed from its next
+ * refills.
+ *
+ */
+public class StripedTokenBuckets {
+
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	private final AtomicLongArray fullAt;
+
+	private final int mask;
+
+	private final int seed = ThreadLocalRandom.current().nextInt();
+
+	/** Nanoseconds needed to refill one token */
+	private final long interval;
+
+	/** Nanoseconds by which a bucket may be ahead of the clock */
+	private final long tolerance;
+
+	/** Clock origin, so that zero stands for a full bucket */
+	private final long origin = System.nanoTime();
+
+	/**
+	 * @param rate    tokens added per second
+	 * @param burst   tokens a bucket holds when full
+	 * @param stripes number of buckets, rounded up to a power of two
+	 */
+	public StripedTokenBuckets(double rate, int burst, int stripes) {
+		if (rate <= 0 || burst < 1 || stripes < 1) {
+			throw new IllegalArgumentException("Rate, burst and stripes must be positive");
+		}
+		fullAt = new AtomicLongArray(stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1);
+		mask = fullAt.length() - 1;
+		interval = Math.max(1, (long) (NANOS_PER_SECOND / rate));
+		tolerance = interval * burst;
+	}
+
+	/**
+	 * Take one token from the bucket of the key
+	 *
+	 * @return 0 if a token was taken, else the nanoseconds until one is
+	 *         available
+	 */
+	public long tryAcquire(Object key) {
+		return tryAcquire(key, 1, System.nanoTime());
+	}
+
+	/**
+	 * Take tokens from the bucket of the key
+	 *
+	 * @return 0 if the tokens were taken, else the nanoseconds until one is
+	 *         available
+	 */
+	public long tryAcquire(Object key, int tokens) {
+		return tryAcquire(key, tokens, System.nanoTime());
+	}
+
+	long tryAcquire(Object key, long nanoTime) {
+		return tryAcquire(key, 1, nanoTime);
+	}
+
+	long tryAcquire(Object key, int tokens, long nanoTime) {
+		int stripe = stripe(key);
+		long now = nanoTime - origin;
+		while (true) {
+			long current = fullAt.get(stripe);
+			long start = Math.max(current, now);
+			if (start + interval - now > tolerance) {
+				return start + interval - now - tolerance;
+			}
+			if (fullAt.compareAndSet(stripe, current, start + interval * tokens)) {
+				return 0;
+			}
+		}
+	}
+
+	private int stripe(Object key) {
+		// murmur3 finalizer, seeded so that stripes differ between instances
+		int h = key.hashCode() ^ seed;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & mask;
+	}
+}
@@ -0,0 +1,186 @@
+package com.cts.processPension.reactive;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+
+import com.cts.processPension.cache.PensionerDetailCache;
+import com.cts.processPension.cache.TokenValidationCache;
+import com.cts.processPension.exception.ErrorResponse;
+import com.cts.processPension.exception.InvalidTokenException;
+import com.cts.processPension.exception.NotFoundException;
+import com.cts.processPension.exception.ServiceUnavailableException;
+import com.cts.processPension.metrics.PensionMetrics;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.service.ProcessPensionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Non-blocking handler for /processPension, active with the "reactive"
+ * profile. Remote calls go through WebClient and the blocking database work
+ * of the pensioner cache is offloaded to the bounded elastic scheduler, so
+ * event-loop threads never wait on I/O. Pensioners are looked up through the
+ * pensioner cache, with its owner forwarding, coalescing and resilience, as
+ * on the servlet stack.
+ *
+ */
+@Component
+@Profile("reactive")
+@Slf4j
+public class ProcessPensionHandler {
+
+	@Autowired
+	private ReactiveAuthorisationClient authorisationClient;
+
+	@Autowired
+	private ReactivePensionerDetailsClient pensionerDetailsClient;
+
+	@Autowired
+	private TokenValidationCache tokenValidationCache;
+
+	@Autowired
+	private PensionerDetailCache pensionerDetailCache;
+
+	@Autowired
+	private ProcessPensionService processPensionService;
+
+	@Autowired
+	private Validator validator;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
+	/**
+	 * @URL: http://localhost:8082/processPension
+	 * @input: { "aadhaarNumber": "123456789011" }
+	 * @return pension details based on access token.
+	 */
+	public Mono<ServerResponse> processPension(ServerRequest request) {
+		String token = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+		if (token == null) {
+			return errorResponse(HttpStatus.BAD_REQUEST, new ErrorResponse("Invalid Request"));
+		}
+		return request.bodyToMono(PensionerInput.class).flatMap(pensionerInput -> {
+			List<String> errors = validator.validate(pensionerInput).stream().map(ConstraintViolation::getMessage)
+					.collect(Collectors.toList());
+			if (!errors.isEmpty()) {
+				log.error(errors.toString());
+				pensionMetrics.outcome(PensionMetrics.OUTCOME_INVALID_INPUT, HttpStatus.BAD_REQUEST.value());
+				ErrorResponse errorResponse = new ErrorResponse("Invalid Details");
+				errorResponse.setFieldErrors(errors);
+				return errorResponse(HttpStatus.BAD_REQUEST, errorResponse);
+			}
+			return validateToken(token).flatMap(valid -> {
+				if (!Boolean.TRUE.equals(valid)) {
+					return Mono.<PensionerDetail>error(new InvalidTokenException("You are not allowed to access this resource"));
+				}
+				return getPensionerDetail(pensionerInput.getAadhaarNumber(), token);
+			}).flatMap(pensionerDetail -> Mono.fromCallable(() -> processPensionService.getPensionAmount(pensionerDetail))
+					.subscribeOn(Schedulers.boundedElastic())).flatMap(pensionDetail -> {
+						pensionMetrics.outcome(PensionMetrics.OUTCOME_SUCCESS, HttpStatus.OK.value());
+						return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(pensionDetail);
+					});
+		}).switchIfEmpty(Mono.defer(() -> errorResponse(HttpStatus.BAD_REQUEST, new ErrorResponse("Invalid Request"))))
+				.onErrorResume(this::handleError);
+	}
+
+	private Mono<Boolean> validateToken(String token) {
+		Boolean cached = tokenValidationCache.getCached(token);
+		if (cached != null) {
+			return Mono.just(cached);
+		}
+		return authorisationClient.validate(token).doOnNext(valid -> tokenValidationCache.record(token, valid));
+	}
+
+	/**
+	 * Pensioner details from memory, then from the owning instance or the local
+	 * database, then from the pensioner detail micro-service
+	 */
+	private Mono<PensionerDetail> getPensionerDetail(String aadhaarNumber, String token) {
+		return pensionerDetailCache
+				.getReactive(aadhaarNumber, token, pensionerDetailsClient::getPensionerDetailByAadhaar)
+				.filter(pensionerDetail -> pensionerDetail.getAadhaarNumber() != null)
+				.switchIfEmpty(Mono.error(() -> new NotFoundException("Details entered are incorrect")));
+	}
+
+	/**
+	 * Same error responses as the global exception handler of the servlet stack
+	 */
+	private Mono<ServerResponse> handleError(Throwable exception) {
+		if (exception instanceof InvalidTokenException) {
+			log.error("Handling Invalid Token exception in Process Pension microservice");
+			pensionMetrics.outcome(PensionMetrics.OUTCOME_INVALID_TOKEN, HttpStatus.FORBIDDEN.value());
+			return errorResponse(HttpStatus.FORBIDDEN, singleErrorResponse(exception.getMessage()));
+		}
+		if (exception instanceof NotFoundException) {
+			log.error("Handling Details mismatch exception in Process Pension microservice");
+			pensionMetrics.outcome(PensionMetrics.OUTCOME_NOT_FOUND, HttpStatus.BAD_REQUEST.value());
+			return errorResponse(HttpStatus.BAD_REQUEST, singleErrorResponse(exception.getMessage()));
+		}
+		if (exception instanceof ServiceUnavailableException || exception instanceof WebClientRequestException) {
+			log.error("Handling Service Unavailable exception in Process Pension microservice");
+			pensionMetrics.outcome(PensionMetrics.OUTCOME_UNAVAILABLE, HttpStatus.SERVICE_UNAVAILABLE.value());
+			return errorResponse(HttpStatus.SERVICE_UNAVAILABLE, singleErrorResponse(
+					exception instanceof ServiceUnavailableException ? exception.getMessage()
+							: "Service is unavailable, try again later"));
+		}
+		if (exception instanceof WebClientResponseException) {
+			log.error("Handling WebClient response in Process Pension microservice...");
+			pensionMetrics.outcome(PensionMetrics.OUTCOME_REMOTE_ERROR,
+					((WebClientResponseException) exception).getRawStatusCode());
+			return errorResponse(HttpStatus.BAD_REQUEST,
+					remoteErrorResponse(((WebClientResponseException) exception).getResponseBodyAsString()));
+		}
+		if (exception instanceof ServerWebInputException || exception instanceof DecodingException) {
+			return errorResponse(HttpStatus.BAD_REQUEST, new ErrorResponse("Invalid Request"));
+		}
+		return Mono.error(exception);
+	}
+
+	private ErrorResponse remoteErrorResponse(String body) {
+		if (body.isBlank()) {
+			return new ErrorResponse("Invalid Request");
+		}
+		try {
+			return objectMapper.readValue(body, ErrorResponse.class);
+		} catch (JsonProcessingException e) {
+			log.error("Processing Error {}", e.toString());
+			return new ErrorResponse(body);
+		}
+	}
+
+	private static ErrorResponse singleErrorResponse(String message) {
+		ErrorResponse errorResponse = new ErrorResponse(message);
+		errorResponse.setFieldErrors(Collections.singletonList(message));
+		return errorResponse;
+	}
+
+	private static Mono<ServerResponse> errorResponse(HttpStatus status, ErrorResponse errorResponse) {
+		return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(errorResponse);
+	}
+}
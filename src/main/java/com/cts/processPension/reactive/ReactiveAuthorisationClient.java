@@ -0,0 +1,53 @@
+package com.cts.processPension.reactive;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking client to connect with authorization micro-service for token
+ * validation
+ *
+ */
+@Component
+@Profile("reactive")
+public class ReactiveAuthorisationClient {
+
+	@Autowired
+	@LoadBalanced
+	private WebClient.Builder webClientBuilder;
+
+	@Value("${pension.reactive.auth-service-url:http://AUTH-SERVICE}")
+	private String baseUrl;
+
+	@Autowired
+	private Environment environment;
+
+	private WebClient webClient;
+
+	@PostConstruct
+	public void setUp() {
+		// a copy, the shared load-balanced builder is left as it is
+		webClient = webClientBuilder.clone().baseUrl(baseUrl)
+				.clientConnector(ReactiveConfig.connector(environment, "auth-service")).build();
+	}
+
+	/**
+	 * method to validate jwt token
+	 * @param token .
+	 * @return true only if token is valid else false
+	 */
+	public Mono<Boolean> validate(String token) {
+		return webClient.get().uri("/validate").header(HttpHeaders.AUTHORIZATION, token).retrieve()
+				.bodyToMono(Boolean.class);
+	}
+}
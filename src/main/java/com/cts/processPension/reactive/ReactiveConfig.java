@@ -0,0 +1,61 @@
+package com.cts.processPension.reactive;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.cts.processPension.feign.HttpClientSettings;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Configuration of the reactive stack, active with the "reactive" profile
+ *
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+	/**
+	 * WebClient builder resolving service names through Eureka, with the same
+	 * codecs as the rest of the application
+	 */
+	@Bean
+	@LoadBalanced
+	public WebClient.Builder loadBalancedWebClientBuilder(ObjectProvider<WebClientCustomizer> customizers) {
+		WebClient.Builder builder = WebClient.builder();
+		customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+		return builder;
+	}
+
+	/**
+	 * Connector of a reactive client with the connect and response timeouts set
+	 * for the Feign client of the same service in pension.http
+	 *
+	 * @param clientName client name in lower case, e.g. auth-service
+	 */
+	static ClientHttpConnector connector(Environment environment, String clientName) {
+		HttpClientSettings settings = HttpClientSettings.of(environment, clientName);
+		return new ReactorClientHttpConnector(HttpClient.create()
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.getConnectTimeout().toMillis())
+				.responseTimeout(settings.getReadTimeout()));
+	}
+
+	@Bean
+	public RouterFunction<ServerResponse> processPensionRoute(ProcessPensionHandler processPensionHandler) {
+		return RouterFunctions.route(POST("/processPension"), processPensionHandler::processPension);
+	}
+}
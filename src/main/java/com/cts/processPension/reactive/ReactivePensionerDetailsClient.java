@@ -0,0 +1,48 @@
+package com.cts.processPension.reactive;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.cts.processPension.model.PensionerDetail;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking client to connect with Pension details micro-service
+ *
+ */
+@Component
+@Profile("reactive")
+public class ReactivePensionerDetailsClient {
+
+	@Autowired
+	@LoadBalanced
+	private WebClient.Builder webClientBuilder;
+
+	@Value("${pension.reactive.pensioner-detail-service-url:http://PENSIONER-DETAIL-SERVICE}")
+	private String baseUrl;
+
+	@Autowired
+	private Environment environment;
+
+	private WebClient webClient;
+
+	@PostConstruct
+	public void setUp() {
+		// a copy, the shared load-balanced builder is left as it is
+		webClient = webClientBuilder.clone().baseUrl(baseUrl)
+				.clientConnector(ReactiveConfig.connector(environment, "pensioner-detail-service")).build();
+	}
+
+	public Mono<PensionerDetail> getPensionerDetailByAadhaar(String aadhaarNumber) {
+		return webClient.get().uri("/pensionerDetailByAadhaar/{aadhaarNumber}", aadhaarNumber).retrieve()
+				.bodyToMono(PensionerDetail.class);
+	}
+}
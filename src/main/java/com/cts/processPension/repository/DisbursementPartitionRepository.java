@@ -0,0 +1,14 @@
+package com.cts.processPension.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.cts.processPension.model.DisbursementPartition;
+
+@Repository
+public interface DisbursementPartitionRepository extends JpaRepository<DisbursementPartition, String> {
+
+	List<DisbursementPartition> findByRunMonth(String runMonth);
+}
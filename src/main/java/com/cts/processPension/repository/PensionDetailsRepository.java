@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import com.cts.processPension.model.PensionAmountDetail;
 
 @Repository
-public interface PensionDetailsRepository extends JpaRepository<PensionAmountDetail, String>{
+public interface PensionDetailsRepository
+		extends JpaRepository<PensionAmountDetail, String>, PensionDetailsRepositoryCustom {
 
 }
@@ -0,0 +1,36 @@
+package com.cts.processPension.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionResult;
+
+/**
+ * Reads of stored pension amounts as projections and writes that bypass the
+ * JPA merge
+ *
+ */
+public interface PensionDetailsRepositoryCustom {
+
+	/**
+	 * Find stored pension amounts in aadhaar number order, every filter is
+	 * ignored when null
+	 *
+	 * @param pensionType pension type of the pensioner
+	 * @param bankType    type of the pensioner's bank
+	 * @param bankName    name of the pensioner's bank
+	 * @param after       aadhaar number the results start after
+	 * @param limit       maximum number of results
+	 * @return results with aadhaar numbers greater than after
+	 */
+	List<PensionResult> findResults(String pensionType, String bankType, String bankName, String after, int limit);
+
+	/**
+	 * Insert or update pension amounts in one batched upsert without reading
+	 * them first
+	 *
+	 * @param pensionAmountDetails amounts with distinct aadhaar numbers
+	 */
+	void upsertAll(Collection<PensionAmountDetail> pensionAmountDetails);
+}
@@ -0,0 +1,126 @@
+package com.cts.processPension.repository;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionResult;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keyset queries over the stored pension amounts. Only the filters given are
+ * added to the query, and the results are built by a constructor expression,
+ * so neither pensioners nor their banks are loaded as entities. Pension and
+ * bank types are matched ignoring case, as the pension rules match them.
+ * Amounts are written with native upserts for H2 and PostgreSQL, other
+ * databases fall back to a JPA merge.
+ *
+ */
+@Slf4j
+public class PensionDetailsRepositoryImpl implements PensionDetailsRepositoryCustom {
+
+	private static final String SELECT_RESULTS = "SELECT new com.cts.processPension.model.PensionResult("
+			+ "a.aadhaarNumber, p.name, p.pensionType, b.bankName, b.bankType, a.pensionAmount, "
+			+ "a.bankServiceCharge, a.totalAmount) "
+			+ "FROM PensionAmountDetail a, PensionerDetail p LEFT JOIN p.bank b "
+			+ "WHERE p.aadhaarNumber = a.aadhaarNumber";
+
+	private static final String H2_AMOUNT = "MERGE INTO pension_amount_detail (aadhaar_number, pension_amount, "
+			+ "bank_service_charge, total_amount, fingerprint) KEY (aadhaar_number) VALUES (?, ?, ?, ?, ?)";
+
+	private static final String POSTGRES_AMOUNT = "INSERT INTO pension_amount_detail (aadhaar_number, "
+			+ "pension_amount, bank_service_charge, total_amount, fingerprint) VALUES (?, ?, ?, ?, ?) "
+			+ "ON CONFLICT (aadhaar_number) DO UPDATE SET pension_amount = EXCLUDED.pension_amount, "
+			+ "bank_service_charge = EXCLUDED.bank_service_charge, total_amount = EXCLUDED.total_amount, "
+			+ "fingerprint = EXCLUDED.fingerprint";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// upsert statement of the database, empty when it has none we know
+	private volatile String upsert;
+
+	@Override
+	public List<PensionResult> findResults(String pensionType, String bankType, String bankName, String after,
+			int limit) {
+		StringBuilder jpql = new StringBuilder(SELECT_RESULTS);
+		Map<String, Object> parameters = new LinkedHashMap<>();
+		if (pensionType != null) {
+			jpql.append(" AND lower(p.pensionType) = :pensionType");
+			parameters.put("pensionType", pensionType.toLowerCase(Locale.ROOT));
+		}
+		if (bankType != null) {
+			jpql.append(" AND lower(b.bankType) = :bankType");
+			parameters.put("bankType", bankType.toLowerCase(Locale.ROOT));
+		}
+		if (bankName != null) {
+			jpql.append(" AND b.bankName = :bankName");
+			parameters.put("bankName", bankName);
+		}
+		if (after != null) {
+			jpql.append(" AND a.aadhaarNumber > :after");
+			parameters.put("after", after);
+		}
+		jpql.append(" ORDER BY a.aadhaarNumber");
+
+		TypedQuery<PensionResult> query = entityManager.createQuery(jpql.toString(), PensionResult.class);
+		parameters.forEach(query::setParameter);
+		return query.setMaxResults(limit).getResultList();
+	}
+
+	@Override
+	@Transactional
+	public void upsertAll(Collection<PensionAmountDetail> pensionAmountDetails) {
+		if (pensionAmountDetails.isEmpty()) {
+			return;
+		}
+		String statement = upsert();
+		if (statement.isEmpty()) {
+			pensionAmountDetails.forEach(entityManager::merge);
+			return;
+		}
+		jdbcTemplate.batchUpdate(statement, pensionAmountDetails, pensionAmountDetails.size(),
+				(row, amountDetail) -> {
+					row.setString(1, amountDetail.getAadhaarNumber());
+					row.setObject(2, amountDetail.getPensionAmount(), Types.DOUBLE);
+					row.setObject(3, amountDetail.getBankServiceCharge(), Types.DOUBLE);
+					row.setObject(4, amountDetail.getTotalAmount(), Types.DOUBLE);
+					row.setString(5, amountDetail.getFingerprint());
+				});
+	}
+
+	private String upsert() {
+		String statement = upsert;
+		if (statement == null) {
+			String database = jdbcTemplate
+					.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			if ("H2".equals(database)) {
+				statement = H2_AMOUNT;
+			} else if ("PostgreSQL".equals(database)) {
+				statement = POSTGRES_AMOUNT;
+			} else {
+				log.warn("No native upsert for {}, pension amounts are merged", database);
+				statement = "";
+			}
+			upsert = statement;
+		}
+		return statement;
+	}
+}
@@ -0,0 +1,231 @@
+package com.cts.processPension.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.cts.processPension.metrics.PensionMetrics;
+import com.cts.processPension.model.PensionerDetail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Persists pensioner detail snapshots. By default snapshots are saved on the
+ * calling thread; in write-behind mode they are queued and a background writer
+ * saves them in JDBC batches. The queue is bounded: when it stays full the
+ * caller saves the snapshot itself, and whatever is left is flushed on
+ * shutdown.
+ * <p>
+ * The queue holds aadhaar numbers, the snapshot to write is the latest one
+ * stored for the aadhaar number, taken when the batch is written. Whichever
+ * thread writes it, an older snapshot is never written after a newer one.
+ *
+ */
+@Component
+@Slf4j
+public class PensionerDetailWriter {
+
+	@Autowired
+	private PensionerDetailsRepository pensionerDetailsRepository;
+
+	@Autowired
+	private PensionMetrics pensionMetrics;
+
+	@Autowired
+	private ObjectProvider<MeterRegistry> meterRegistry;
+
+	@Value("${pension.write-behind.enabled:false}")
+	private boolean writeBehind;
+
+	@Value("${pension.write-behind.queue-capacity:10000}")
+	private int queueCapacity;
+
+	@Value("${pension.write-behind.batch-size:50}")
+	private int batchSize;
+
+	@Value("${pension.write-behind.flush-interval:200ms}")
+	private Duration flushInterval;
+
+	@Value("${pension.write-behind.offer-timeout:100ms}")
+	private Duration offerTimeout;
+
+	private BlockingQueue<String> queue;
+
+	private final Map<String, PensionerDetail> pending = new ConcurrentHashMap<>();
+
+	private Thread writerThread;
+
+	private volatile boolean running;
+
+	private Timer flushTimer;
+
+	private Counter rejected;
+
+	private Counter failures;
+
+	private Counter dropped;
+
+	@PostConstruct
+	public void setUp() {
+		queue = new ArrayBlockingQueue<>(queueCapacity);
+		MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+		registry.gauge("pensioner.writer.queue.depth", queue, BlockingQueue::size);
+		flushTimer = registry.timer("pensioner.writer.flush");
+		rejected = registry.counter("pensioner.writer.rejected");
+		failures = registry.counter("pensioner.writer.failures");
+		dropped = registry.counter("pensioner.writer.dropped");
+		if (writeBehind) {
+			running = true;
+			writerThread = new Thread(this::run, "pensioner-writer");
+			writerThread.setDaemon(true);
+			writerThread.start();
+		}
+	}
+
+	/**
+	 * Save a pensioner detail snapshot, or queue it in write-behind mode
+	 *
+	 * @param pensionerDetail
+	 */
+	public void save(PensionerDetail pensionerDetail) {
+		saveAll(Collections.singletonList(pensionerDetail));
+	}
+
+	/**
+	 * Save several pensioner detail snapshots, or queue them in write-behind mode
+	 *
+	 * @param pensionerDetails
+	 */
+	public void saveAll(Collection<PensionerDetail> pensionerDetails) {
+		pensionMetrics.time(PensionMetrics.STAGE_PENSIONER_STORE, () -> store(pensionerDetails));
+	}
+
+	private void store(Collection<PensionerDetail> pensionerDetails) {
+		if (!writeBehind) {
+			pensionerDetailsRepository.upsertAll(latest(pensionerDetails));
+			return;
+		}
+		List<String> overflow = new ArrayList<>();
+		for (PensionerDetail pensionerDetail : pensionerDetails) {
+			pending.put(pensionerDetail.getAadhaarNumber(), pensionerDetail);
+			if (!enqueue(pensionerDetail.getAadhaarNumber())) {
+				overflow.add(pensionerDetail.getAadhaarNumber());
+			}
+		}
+		if (!overflow.isEmpty()) {
+			// the writer is not keeping up, apply backpressure by saving on the caller
+			rejected.increment(overflow.size());
+			write(overflow);
+		}
+	}
+
+	/**
+	 * Write every queued snapshot now
+	 */
+	public void flush() {
+		List<String> batch = new ArrayList<>(batchSize);
+		while (queue.drainTo(batch, batchSize) > 0) {
+			write(batch);
+			batch.clear();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		if (writerThread != null) {
+			running = false;
+			writerThread.join(flushInterval.multipliedBy(2).toMillis());
+		}
+		flush();
+		log.info("Pensioner detail writer stopped");
+	}
+
+	private boolean enqueue(String aadhaarNumber) {
+		try {
+			return queue.offer(aadhaarNumber, offerTimeout.toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void run() {
+		List<String> batch = new ArrayList<>(batchSize);
+		while (running || !queue.isEmpty()) {
+			try {
+				String first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+				if (first != null) {
+					batch.add(first);
+					queue.drainTo(batch, batchSize - 1);
+					write(batch);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	/**
+	 * Save the latest snapshots of one batch of aadhaar numbers. Batches are
+	 * written one at a time so the same pensioner is never saved by two
+	 * transactions at once. A failed batch is counted as a failure and retried
+	 * one snapshot at a time, the snapshots failing again are dropped and
+	 * counted; they are fetched again on the next lookup of their pensioner.
+	 */
+	private synchronized void write(List<String> batch) {
+		List<PensionerDetail> latest = new ArrayList<>(batch.size());
+		for (String aadhaarNumber : batch) {
+			PensionerDetail pensionerDetail = pending.remove(aadhaarNumber);
+			if (pensionerDetail != null) {
+				latest.add(pensionerDetail);
+			}
+		}
+		if (latest.isEmpty()) {
+			return;
+		}
+		try {
+			flushTimer.record(() -> pensionerDetailsRepository.upsertAll(latest));
+			return;
+		} catch (RuntimeException e) {
+			failures.increment();
+			log.warn("Failed to save {} pensioner details, retrying one by one: {}", latest.size(), e.getMessage());
+		}
+		for (PensionerDetail pensionerDetail : latest) {
+			try {
+				pensionerDetailsRepository.upsertAll(Collections.singletonList(pensionerDetail));
+			} catch (RuntimeException e) {
+				dropped.increment();
+				log.error("Dropped pensioner details of {}: {}", pensionerDetail.getAadhaarNumber(), e.getMessage());
+			}
+		}
+	}
+
+	private static Collection<PensionerDetail> latest(Collection<PensionerDetail> pensionerDetails) {
+		Map<String, PensionerDetail> latest = new LinkedHashMap<>();
+		pensionerDetails.forEach(pensionerDetail -> latest.put(pensionerDetail.getAadhaarNumber(), pensionerDetail));
+		return latest.values();
+	}
+}
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Repository;
 import com.cts.processPension.model.PensionerInput;
 
 @Repository
-public interface PensionerDetailsRepository extends JpaRepository<PensionerDetail, String> {
+public interface PensionerDetailsRepository
+		extends JpaRepository<PensionerDetail, String>, PensionerDetailsRepositoryCustom {
 
 }
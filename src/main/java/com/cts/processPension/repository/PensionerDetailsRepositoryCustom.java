@@ -0,0 +1,20 @@
+package com.cts.processPension.repository;
+
+import java.util.Collection;
+
+import com.cts.processPension.model.PensionerDetail;
+
+/**
+ * Writes of pensioner detail snapshots that bypass the JPA merge
+ *
+ */
+public interface PensionerDetailsRepositoryCustom {
+
+	/**
+	 * Insert or update the snapshots and their banks without reading them
+	 * first: one batched upsert of the banks and one of the pensioners
+	 *
+	 * @param pensionerDetails snapshots with distinct aadhaar numbers
+	 */
+	void upsertAll(Collection<PensionerDetail> pensionerDetails);
+}
@@ -0,0 +1,125 @@
+package com.cts.processPension.repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionerDetail;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Native upserts of pensioner detail snapshots for H2 and PostgreSQL, other
+ * databases fall back to a JPA merge
+ *
+ */
+@Slf4j
+public class PensionerDetailsRepositoryImpl implements PensionerDetailsRepositoryCustom {
+
+	private static final String H2_BANK = "MERGE INTO bank (account_number, bank_name, bank_type) "
+			+ "KEY (account_number) VALUES (?, ?, ?)";
+
+	private static final String H2_PENSIONER = "MERGE INTO pensioner_detail (aadhaar_number, name, date_of_birth, "
+			+ "pan, salary, allowance, pension_type, account_number, bank_account_number, fetched_at) "
+			+ "KEY (aadhaar_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String POSTGRES_BANK = "INSERT INTO bank (account_number, bank_name, bank_type) "
+			+ "VALUES (?, ?, ?) ON CONFLICT (account_number) DO UPDATE SET bank_name = EXCLUDED.bank_name, "
+			+ "bank_type = EXCLUDED.bank_type";
+
+	private static final String POSTGRES_PENSIONER = "INSERT INTO pensioner_detail (aadhaar_number, name, "
+			+ "date_of_birth, pan, salary, allowance, pension_type, account_number, bank_account_number, fetched_at) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (aadhaar_number) DO UPDATE SET name = EXCLUDED.name, "
+			+ "date_of_birth = EXCLUDED.date_of_birth, pan = EXCLUDED.pan, salary = EXCLUDED.salary, "
+			+ "allowance = EXCLUDED.allowance, pension_type = EXCLUDED.pension_type, "
+			+ "account_number = EXCLUDED.account_number, bank_account_number = EXCLUDED.bank_account_number, "
+			+ "fetched_at = EXCLUDED.fetched_at";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// upsert statements of the database, empty when it has none we know
+	private volatile String[] statements;
+
+	@Override
+	@Transactional
+	public void upsertAll(Collection<PensionerDetail> pensionerDetails) {
+		if (pensionerDetails.isEmpty()) {
+			return;
+		}
+		String[] upserts = statements();
+		if (upserts.length == 0) {
+			pensionerDetails.forEach(entityManager::merge);
+			return;
+		}
+
+		Map<Long, Bank> banks = new LinkedHashMap<>();
+		for (PensionerDetail pensionerDetail : pensionerDetails) {
+			if (pensionerDetail.getBank() != null) {
+				banks.put(pensionerDetail.getBank().getAccountNumber(), pensionerDetail.getBank());
+			}
+		}
+		List<Bank> bankRows = new ArrayList<>(banks.values());
+		if (!bankRows.isEmpty()) {
+			jdbcTemplate.batchUpdate(upserts[0], bankRows, bankRows.size(), (statement, bank) -> {
+				statement.setLong(1, bank.getAccountNumber());
+				statement.setString(2, bank.getBankName());
+				statement.setString(3, bank.getBankType());
+			});
+		}
+		jdbcTemplate.batchUpdate(upserts[1], pensionerDetails, pensionerDetails.size(),
+				(statement, pensionerDetail) -> {
+					statement.setString(1, pensionerDetail.getAadhaarNumber());
+					statement.setString(2, pensionerDetail.getName());
+					statement.setObject(3, pensionerDetail.getDateOfBirth() == null ? null
+							: Date.valueOf(pensionerDetail.getDateOfBirth()), Types.DATE);
+					statement.setString(4, pensionerDetail.getPan());
+					statement.setDouble(5, pensionerDetail.getSalary());
+					statement.setDouble(6, pensionerDetail.getAllowance());
+					statement.setString(7, pensionerDetail.getPensionType());
+					statement.setLong(8, pensionerDetail.getAccountNumber());
+					statement.setObject(9, pensionerDetail.getBank() == null ? null
+							: pensionerDetail.getBank().getAccountNumber(), Types.BIGINT);
+					statement.setObject(10, pensionerDetail.getFetchedAt() == null ? null
+							: Timestamp.from(pensionerDetail.getFetchedAt()), Types.TIMESTAMP);
+				});
+
+		bankRows.forEach(Bank::markPersisted);
+		pensionerDetails.forEach(PensionerDetail::markPersisted);
+	}
+
+	private String[] statements() {
+		String[] upserts = statements;
+		if (upserts == null) {
+			String database = jdbcTemplate
+					.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			if ("H2".equals(database)) {
+				upserts = new String[] { H2_BANK, H2_PENSIONER };
+			} else if ("PostgreSQL".equals(database)) {
+				upserts = new String[] { POSTGRES_BANK, POSTGRES_PENSIONER };
+			} else {
+				log.warn("No native upsert for {}, pensioner details are merged", database);
+				upserts = new String[0];
+			}
+			statements = upserts;
+		}
+		return upserts;
+	}
+}
@@ -0,0 +1,38 @@
+package com.cts.processPension.rule;
+
+/**
+ * Compiled pension rule
+ *
+ */
+public final class PensionRule {
+
+	private final double salaryMultiplier;
+	private final double serviceCharge;
+
+	PensionRule(double salaryMultiplier, double serviceCharge) {
+		this.salaryMultiplier = salaryMultiplier;
+		this.serviceCharge = serviceCharge;
+	}
+
+	/**
+	 * @return pension amount after the bank service charge
+	 */
+	public double apply(double salary, double allowance) {
+		return pensionAmount(salary, allowance) - serviceCharge;
+	}
+
+	/**
+	 * @return pension amount before the bank service charge
+	 */
+	public double pensionAmount(double salary, double allowance) {
+		return salary * salaryMultiplier + allowance;
+	}
+
+	public double getSalaryMultiplier() {
+		return salaryMultiplier;
+	}
+
+	public double getServiceCharge() {
+		return serviceCharge;
+	}
+}
@@ -0,0 +1,26 @@
+package com.cts.processPension.rule;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Configured pension rule: pension amount = salary * salaryMultiplier +
+ * allowance - serviceCharge. A bank type of "*" applies to every bank type
+ * without a rule of its own.
+ *
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PensionRuleDefinition {
+
+	public static final String ANY_BANK_TYPE = "*";
+
+	private String pensionType;
+	private String bankType;
+	private double salaryMultiplier;
+	private double serviceCharge;
+}
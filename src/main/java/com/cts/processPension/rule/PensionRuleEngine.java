@@ -0,0 +1,86 @@
+package com.cts.processPension.rule;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the compiled pension rule table. Rules are read from pension.rules
+ * and recompiled when the environment changes (e.g. on /actuator/refresh);
+ * the new table replaces the old one atomically and an invalid configuration
+ * keeps the table in use.
+ *
+ */
+@Component
+@Slf4j
+public class PensionRuleEngine {
+
+	private static final String RULES_PROPERTY = "pension.rules";
+
+	/**
+	 * Used when pension.rules is not configured
+	 */
+	public static final List<PensionRuleDefinition> DEFAULT_RULES = Arrays.asList(
+			new PensionRuleDefinition("self", "public", 0.8, 500),
+			new PensionRuleDefinition("self", PensionRuleDefinition.ANY_BANK_TYPE, 0.8, 550),
+			new PensionRuleDefinition("family", "public", 0.5, 500),
+			new PensionRuleDefinition("family", PensionRuleDefinition.ANY_BANK_TYPE, 0.5, 550));
+
+	@Autowired
+	private Environment environment;
+
+	private volatile PensionRuleTable table = PensionRuleTable.compile(DEFAULT_RULES);
+
+	@PostConstruct
+	public void setUp() {
+		reload();
+	}
+
+	@EventListener
+	public void onEnvironmentChange(EnvironmentChangeEvent event) {
+		if (event.getKeys().stream().anyMatch(key -> key.startsWith(RULES_PROPERTY))) {
+			try {
+				reload();
+			} catch (RuntimeException e) {
+				log.error("Invalid pension rules, keeping the current rules: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Recompile the rule table from the current configuration
+	 */
+	public void reload() {
+		replaceRules(Binder.get(environment).bind(RULES_PROPERTY, Bindable.listOf(PensionRuleDefinition.class))
+				.orElse(DEFAULT_RULES));
+	}
+
+	/**
+	 * Compile and install new rules, the current rules stay in use if they are
+	 * invalid
+	 *
+	 * @param definitions
+	 */
+	public void replaceRules(List<PensionRuleDefinition> definitions) {
+		table = PensionRuleTable.compile(definitions);
+		log.info("Loaded {} pension rules", definitions.size());
+	}
+
+	/**
+	 * @return rule for the pension type and bank type codes, or null if none
+	 */
+	public PensionRule find(int pensionTypeCode, int bankTypeCode) {
+		return table.find(pensionTypeCode, bankTypeCode);
+	}
+}
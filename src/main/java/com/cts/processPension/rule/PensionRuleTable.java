@@ -0,0 +1,79 @@
+package com.cts.processPension.rule;
+
+import java.util.List;
+
+/**
+ * Immutable rule table indexed by pension type code and bank type code
+ *
+ */
+public final class PensionRuleTable {
+
+	private final PensionRule[][] rules;
+
+	private final PensionRule[] anyBankRules;
+
+	private PensionRuleTable(PensionRule[][] rules, PensionRule[] anyBankRules) {
+		this.rules = rules;
+		this.anyBankRules = anyBankRules;
+	}
+
+	/**
+	 * Compile rule definitions into a table
+	 *
+	 * @throws IllegalArgumentException when a definition is incomplete, defined
+	 *                                  twice or its types can not be coded
+	 */
+	public static PensionRuleTable compile(List<PensionRuleDefinition> definitions) {
+		int pensionTypes = 0;
+		int bankTypes = 0;
+		for (PensionRuleDefinition definition : definitions) {
+			if (definition.getPensionType() == null || definition.getBankType() == null) {
+				throw new IllegalArgumentException("Pension rule needs a pension type and a bank type");
+			}
+			int pensionType = RuleCodes.pensionType(definition.getPensionType());
+			int bankType = PensionRuleDefinition.ANY_BANK_TYPE.equals(definition.getBankType()) ? 0
+					: RuleCodes.bankType(definition.getBankType());
+			if (pensionType == RuleCodes.UNKNOWN || bankType == RuleCodes.UNKNOWN) {
+				throw new IllegalArgumentException("Too many distinct types to code " + definition.getPensionType()
+						+ " and " + definition.getBankType());
+			}
+			pensionTypes = Math.max(pensionTypes, pensionType + 1);
+			bankTypes = Math.max(bankTypes, bankType + 1);
+		}
+
+		PensionRule[][] rules = new PensionRule[pensionTypes][bankTypes];
+		PensionRule[] anyBankRules = new PensionRule[pensionTypes];
+		for (PensionRuleDefinition definition : definitions) {
+			int pensionType = RuleCodes.pensionType(definition.getPensionType());
+			PensionRule rule = new PensionRule(definition.getSalaryMultiplier(), definition.getServiceCharge());
+			PensionRule previous;
+			if (PensionRuleDefinition.ANY_BANK_TYPE.equals(definition.getBankType())) {
+				previous = anyBankRules[pensionType];
+				anyBankRules[pensionType] = rule;
+			} else {
+				int bankType = RuleCodes.bankType(definition.getBankType());
+				previous = rules[pensionType][bankType];
+				rules[pensionType][bankType] = rule;
+			}
+			if (previous != null) {
+				throw new IllegalArgumentException("Pension rule defined twice for " + definition.getPensionType()
+						+ " and " + definition.getBankType());
+			}
+		}
+		return new PensionRuleTable(rules, anyBankRules);
+	}
+
+	/**
+	 * @return rule for the codes, or null when the pension type has no rule
+	 */
+	public PensionRule find(int pensionType, int bankType) {
+		if (pensionType < 0 || pensionType >= rules.length) {
+			return null;
+		}
+		PensionRule[] bankRules = rules[pensionType];
+		if (bankType >= 0 && bankType < bankRules.length && bankRules[bankType] != null) {
+			return bankRules[bankType];
+		}
+		return anyBankRules[pensionType];
+	}
+}
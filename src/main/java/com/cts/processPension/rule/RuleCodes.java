@@ -0,0 +1,60 @@
+package com.cts.processPension.rule;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registry turning pension types and bank types into small integer codes.
+ * Codes are case insensitive, assigned on first sight and never reused, so a
+ * code resolved when a pensioner is deserialized stays valid across rule
+ * table reloads, including for categories added later.
+ * <p>
+ * Only the lower case form of a value is kept and at most {@link #MAX_CODES}
+ * values are coded per registry, values seen once the registry is full are
+ * {@link #UNKNOWN}, so data coming from other services can not grow it
+ * without bound.
+ *
+ */
+public class RuleCodes {
+
+	public static final int UNKNOWN = -1;
+
+	public static final int MAX_CODES = 1024;
+
+	private static final Map<String, Integer> PENSION_TYPES = new ConcurrentHashMap<>();
+
+	private static final Map<String, Integer> BANK_TYPES = new ConcurrentHashMap<>();
+
+	private static final AtomicInteger NEXT_PENSION_TYPE = new AtomicInteger();
+
+	private static final AtomicInteger NEXT_BANK_TYPE = new AtomicInteger();
+
+	private RuleCodes() {
+	}
+
+	public static int pensionType(String pensionType) {
+		return code(PENSION_TYPES, NEXT_PENSION_TYPE, pensionType);
+	}
+
+	public static int bankType(String bankType) {
+		return code(BANK_TYPES, NEXT_BANK_TYPE, bankType);
+	}
+
+	private static int code(Map<String, Integer> codes, AtomicInteger next, String value) {
+		if (value == null) {
+			return UNKNOWN;
+		}
+		// toLowerCase returns the same string when it is already lower case
+		String key = value.toLowerCase(Locale.ROOT);
+		Integer code = codes.get(key);
+		if (code == null) {
+			code = codes.computeIfAbsent(key, k -> {
+				int assigned = next.getAndUpdate(n -> n < MAX_CODES ? n + 1 : n);
+				return assigned < MAX_CODES ? assigned : null;
+			});
+		}
+		return code == null ? UNKNOWN : code;
+	}
+}
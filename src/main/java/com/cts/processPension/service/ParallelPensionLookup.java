@@ -0,0 +1,92 @@
+package com.cts.processPension.service;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import com.cts.processPension.cache.TokenValidationCache;
+import com.cts.processPension.exception.InvalidTokenException;
+import com.cts.processPension.exception.ServiceTimeoutException;
+import com.cts.processPension.exception.ServiceUnavailableException;
+import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionerInput;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Validates the token and looks up the pension details at the same time, so
+ * a request waits for the slower of the two calls instead of both. The pension
+ * details are only returned once the token is known to be valid, and the
+ * lookup is cancelled as soon as validation fails or the deadline passes.
+ * When the executor rejects either call the request fails with 503.
+ *
+ */
+@Component
+@Slf4j
+public class ParallelPensionLookup {
+
+	@Autowired
+	private TokenValidationCache tokenValidationCache;
+
+	@Autowired
+	private ProcessPensionServiceImpl processPensionService;
+
+	@Autowired
+	@Qualifier("remoteCallExecutor")
+	private AsyncTaskExecutor remoteCallExecutor;
+
+	@Value("${pension.parallel.timeout:5s}")
+	private Duration timeout;
+
+	/**
+	 * Get the pension details for a caller whose token is validated concurrently
+	 *
+	 * @param token          value of the Authorization header
+	 * @param pensionerInput
+	 * @return Verified Pension Detail with pension amount
+	 */
+	public PensionDetail getPensionDetails(String token, PensionerInput pensionerInput) {
+		Future<Boolean> validation = null;
+		Future<PensionDetail> lookup = null;
+		long deadline = System.nanoTime() + timeout.toNanos();
+		try {
+			validation = remoteCallExecutor.submit(() -> tokenValidationCache.isValid(token));
+			lookup = remoteCallExecutor.submit(() -> processPensionService.getPensionDetails(token, pensionerInput));
+			// the token decides first, lookup errors must not leak to invalid callers
+			if (!Boolean.TRUE.equals(validation.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS))) {
+				throw new InvalidTokenException("You are not allowed to access this resource");
+			}
+			return lookup.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		} catch (TaskRejectedException e) {
+			log.error("Remote call executor is saturated: {}", e.getMessage());
+			throw new ServiceUnavailableException("Too many pension requests are being processed, try again later");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (TimeoutException e) {
+			log.error("Pension lookup did not complete within {}", timeout);
+			throw new ServiceTimeoutException("Pension details could not be processed in time");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ServiceTimeoutException("Pension details processing was interrupted");
+		} finally {
+			if (validation != null) {
+				validation.cancel(true);
+			}
+			if (lookup != null) {
+				lookup.cancel(true);
+			}
+		}
+	}
+}
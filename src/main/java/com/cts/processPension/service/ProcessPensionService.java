@@ -1,7 +1,11 @@
 package com.cts.processPension.service;
 
+import java.util.List;
+
+import com.cts.processPension.model.PensionBatchResult;
 import com.cts.processPension.model.PensionDetail;
 import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.model.PensionResultPage;
 import com.cts.processPension.model.PensionerInput;
 
 /**
@@ -14,20 +18,42 @@ public interface ProcessPensionService {
 	 * This method is responsible to get the pension details if input details are
 	 * valid
 	 * 
+	 * @param token access token of the caller, passed on to the instance
+	 *              owning the pensioner
 	 * @param pensionerInput
 	 * @return Verified Pension Detail with pension amount
 	 */
-	public PensionDetail getPensionDetails(PensionerInput pensionerInput);
+	public PensionDetail getPensionDetails(String token, PensionerInput pensionerInput);
+
+	/**
+	 * This method is responsible to get the pension details of several
+	 * pensioners at once, reporting errors per pensioner
+	 * 
+	 * @param token access token of the caller, passed on to the instances
+	 *              owning the pensioners
+	 * @param pensionerInputs
+	 * @return Pension Detail or error message for every input, in input order
+	 */
+	public List<PensionBatchResult> getPensionDetailsBatch(String token, List<PensionerInput> pensionerInputs);
 
 	/**
 	 * Calculate the pension amount and return the pensioner details according to
-	 * the type of pension "self" or "family"
+	 * the pension rule for the type of pension and the type of bank
 	 * 
 	 * @param pensionDetail
 	 * @return Pension Details with Pension amount
 	 */
 	public PensionDetail calculatePensionAmount(PensionerDetail pensionDetail);
 
+	/**
+	 * Get the pension details with the stored pension amount, calculating and
+	 * storing it only when it is missing or stale
+	 * 
+	 * @param pensionerDetail
+	 * @return Pension Details with Pension amount
+	 */
+	public PensionDetail getPensionAmount(PensionerDetail pensionerDetail);
+
 	/**
 	 * Method to check the details entered by the user
 	 * 
@@ -36,5 +62,20 @@ public interface ProcessPensionService {
 	 * @return true if details match, else false
 	 */
 	public boolean checkdetails(PensionerInput pensionerInput, PensionerDetail pensionerDetail);
+
+	/**
+	 * This method is responsible to list the stored pension amounts, one page
+	 * at a time in aadhaar number order
+	 * 
+	 * @param pensionType pension type filter, or null
+	 * @param bankType    bank type filter, or null
+	 * @param bankName    bank name filter, or null
+	 * @param after       aadhaar number the page starts after, or null for the
+	 *                    first page
+	 * @param size        maximum number of results in the page
+	 * @return page of pension results
+	 */
+	public PensionResultPage getPensionResults(String pensionType, String bankType, String bankName, String after,
+			int size);
 	
 }
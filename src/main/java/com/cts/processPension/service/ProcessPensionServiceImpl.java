@@ -1,15 +1,37 @@
 package com.cts.processPension.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.cts.processPension.cache.PensionAmountStore;
+import com.cts.processPension.cache.PensionerDetailCache;
 import com.cts.processPension.exception.NotFoundException;
-import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionBatchResult;
 import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionResult;
+import com.cts.processPension.model.PensionResultPage;
 import com.cts.processPension.model.PensionerDetail;
 import com.cts.processPension.model.PensionerInput;
 import com.cts.processPension.repository.PensionDetailsRepository;
-import com.cts.processPension.repository.PensionerDetailsRepository;
+import com.cts.processPension.rule.PensionRule;
+import com.cts.processPension.rule.PensionRuleEngine;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,50 +44,136 @@ import lombok.extern.slf4j.Slf4j;
 public class ProcessPensionServiceImpl implements ProcessPensionService {
 
 	@Autowired
-	private PensionerDetailsClient pensionerDetailClient;
+	private PensionerDetailCache pensionerDetailCache;
 
 	@Autowired
-	private PensionDetailsRepository pensionDetailsRepository;
+	private PensionAmountStore pensionAmountStore;
+
+	@Autowired
+	private PensionRuleEngine pensionRuleEngine;
+
+	@Autowired
+	private Validator validator;
 
 	@Autowired
-	private PensionerDetailsRepository pensionerDetailsRepository;
+	@Qualifier("pensionerLookupExecutor")
+	private Executor pensionerLookupExecutor;
+
+	@Autowired
+	private PensionDetailsRepository pensionDetailsRepository;
+
+	@Value("${pension.query.max-page-size:1000}")
+	private int maxPageSize;
 
 	/**
 	 * This method is responsible to get the pension details if input details are
 	 * valid
+	 * @param token access token of the caller
 	 * @param pensionerInput
 	 * @return Verified Pension Detail with pension amount
 	 */
 	@Override
-	public PensionDetail getPensionDetails(PensionerInput pensionerInput) {
+	public PensionDetail getPensionDetails(String token, PensionerInput pensionerInput) {
 
-		// get the pensioner details from the pensionerDetailService
-		PensionerDetail pensionerDetail = pensionerDetailClient
-				.getPensionerDetailByAadhaar(pensionerInput.getAadhaarNumber());
+		// get the pensioner details from the cache, falling back to the pensionerDetailService
+		PensionerDetail pensionerDetail = pensionerDetailCache.get(pensionerInput.getAadhaarNumber(), token);
 
-		System.out.println("Pensioner Details:"+pensionerDetail);
 		log.info("Pensioner details found");
 
 		if (pensionerDetail.getAadhaarNumber() != null) {
-			// save the input pensioner details into the database
-			pensionerDetailsRepository.save(pensionerDetail);
-			// calculate the amount and return the pension detail object
-			return calculatePensionAmount(pensionerDetail);
+			// get the stored amount, or calculate it, and return the pension detail object
+			return getPensionAmount(pensionerDetail);
 		} else {
 			throw new NotFoundException("Details entered are incorrect");
 		}
 	}
-/**
-	 * This method is responsible to get the pension details if input details are
-	 * valid
+
+	/**
+	 * This method is responsible to get the pension details of several
+	 * pensioners at once. Pensioner details are fetched concurrently, stored with
+	 * one batched save and every input gets either its pension details or its
+	 * own error message.
 	 *
-	 * @param pensionerInput
-	 * @return Verified Pension Detail with pension amount
+	 * @param token access token of the caller
+	 * @param pensionerInputs
+	 * @return Pension Detail or error message for every input, in input order
 	 */
+	@Override
+	public List<PensionBatchResult> getPensionDetailsBatch(String token, List<PensionerInput> pensionerInputs) {
+
+		// validate every input, only valid aadhaar numbers are looked up
+		String[] errors = new String[pensionerInputs.size()];
+		Set<String> aadhaarNumbers = new LinkedHashSet<>();
+		for (int i = 0; i < errors.length; i++) {
+			PensionerInput pensionerInput = pensionerInputs.get(i);
+			if (pensionerInput == null) {
+				errors[i] = "Invalid Details";
+				continue;
+			}
+			Set<ConstraintViolation<PensionerInput>> violations = validator.validate(pensionerInput);
+			if (violations.isEmpty()) {
+				aadhaarNumbers.add(pensionerInput.getAadhaarNumber());
+			} else {
+				errors[i] = violations.iterator().next().getMessage();
+			}
+		}
+
+		Map<String, CompletableFuture<PensionerDetail>> pensionerDetails = pensionerDetailCache
+				.getAll(aadhaarNumbers, token, pensionerLookupExecutor);
+		log.info("Pensioner details fetched for batch of {}", pensionerInputs.size());
+
+		// resolve every lookup first so the pension amounts are read and stored together
+		Map<String, PensionerDetail> found = new LinkedHashMap<>();
+		Map<String, String> lookupErrors = new HashMap<>();
+		pensionerDetails.forEach((aadhaarNumber, lookup) -> {
+			try {
+				PensionerDetail pensionerDetail = lookup.join();
+				if (pensionerDetail.getAadhaarNumber() == null) {
+					throw new NotFoundException("Details entered are incorrect");
+				}
+				found.put(aadhaarNumber, pensionerDetail);
+			} catch (CompletionException e) {
+				lookupErrors.put(aadhaarNumber, e.getCause().getMessage());
+			} catch (RuntimeException e) {
+				lookupErrors.put(aadhaarNumber, e.getMessage());
+			}
+		});
+		Map<String, PensionAmountDetail> amounts;
+		try {
+			amounts = pensionAmountStore.getAll(found.values());
+		} catch (RuntimeException e) {
+			// store the amounts one by one so that a failure only fails its own pensioner
+			log.warn("Failed to store pension amounts of batch: {}", e.getMessage());
+			amounts = new HashMap<>();
+			for (PensionerDetail pensionerDetail : found.values()) {
+				try {
+					amounts.put(pensionerDetail.getAadhaarNumber(), pensionAmountStore.get(pensionerDetail));
+				} catch (RuntimeException ex) {
+					lookupErrors.put(pensionerDetail.getAadhaarNumber(),
+							"Pension amount could not be stored, try again later");
+				}
+			}
+		}
+
+		List<PensionBatchResult> results = new ArrayList<>(errors.length);
+		for (int i = 0; i < errors.length; i++) {
+			PensionerInput pensionerInput = pensionerInputs.get(i);
+			String aadhaarNumber = pensionerInput == null ? null : pensionerInput.getAadhaarNumber();
+			String error = errors[i] != null ? errors[i] : lookupErrors.get(aadhaarNumber);
+			if (error != null) {
+				results.add(new PensionBatchResult(aadhaarNumber, null, error));
+			} else {
+				results.add(new PensionBatchResult(aadhaarNumber,
+						toPensionDetail(found.get(aadhaarNumber), amounts.get(aadhaarNumber).getTotalAmount()), null));
+			}
+		}
+		return results;
+	}
+
 
 	/**
 	 * Calculate the pension amount and return the pensioner details according to
-	 * the type of pension "self" or "family"
+	 * the pension rule for the type of pension and the type of bank
 	 * 
 	 * 
 	 * @param pensionDetail Pensioner Details
@@ -73,29 +181,32 @@ public class ProcessPensionServiceImpl implements ProcessPensionService {
 	 */
 	@Override
 	public PensionDetail calculatePensionAmount(PensionerDetail pensionDetail) {
-		double pensionAmount = 0;
-		if (pensionDetail.getPensionType().equalsIgnoreCase("self")) {
-			if(pensionDetail.getBank().getBankType().equalsIgnoreCase("public")){
-				pensionAmount = (pensionDetail.getSalary() * 0.8 + pensionDetail.getAllowance()) - 500;
-			}
-			else{
-				pensionAmount = (pensionDetail.getSalary() * 0.8 + pensionDetail.getAllowance()) - 550;
-			}
-		}
-		else if (pensionDetail.getPensionType().equalsIgnoreCase("family")) {
-			if(pensionDetail.getBank().getBankType().equalsIgnoreCase("public")){
-				pensionAmount = (pensionDetail.getSalary() * 0.5 + pensionDetail.getAllowance()) - 500;
-			}
-			else{
-				pensionAmount = (pensionDetail.getSalary() * 0.5 + pensionDetail.getAllowance()) - 550;
-			}
-		}
+		PensionRule rule = pensionRuleEngine.find(pensionDetail.getPensionTypeCode(),
+				pensionDetail.getBank().getBankTypeCode());
+		double pensionAmount = rule == null ? 0 : rule.apply(pensionDetail.getSalary(), pensionDetail.getAllowance());
+		return toPensionDetail(pensionDetail, pensionAmount);
+	}
+
+	/**
+	 * Get the pension details with the stored pension amount, the amount is only
+	 * calculated and stored when it is missing or the pensioner details changed
+	 *
+	 * @param pensionerDetail Pensioner Details
+	 * @return Pension Details with Pension amount
+	 */
+	@Override
+	public PensionDetail getPensionAmount(PensionerDetail pensionerDetail) {
+		return toPensionDetail(pensionerDetail, pensionAmountStore.get(pensionerDetail).getTotalAmount());
+	}
+
+	private static PensionDetail toPensionDetail(PensionerDetail pensionerDetail, double pensionAmount) {
 		return new PensionDetail(
-				pensionDetail.getName(),
-				pensionDetail.getDateOfBirth(),
-				pensionDetail.getPan(),
-				pensionDetail.getPensionType(),
-				pensionAmount);
+				pensionerDetail.getName(),
+				pensionerDetail.getDateOfBirth(),
+				pensionerDetail.getPan(),
+				pensionerDetail.getPensionType(),
+				pensionAmount,
+				pensionerDetail.isStale());
 	}
 
 	/**
@@ -116,4 +227,22 @@ public class ProcessPensionServiceImpl implements ProcessPensionService {
 */
 		return (pensionerInput.getAadhaarNumber().equals(pensionerDetail.getAadhaarNumber()));
 	}
-}
\ No newline at end of file
+
+	/**
+	 * List the stored pension amounts one page at a time, the page size is
+	 * capped by pension.query.max-page-size
+	 */
+	@Override
+	public PensionResultPage getPensionResults(String pensionType, String bankType, String bankName, String after,
+			int size) {
+		int pageSize = Math.max(1, Math.min(size, maxPageSize));
+		// one more result tells whether there is a next page
+		List<PensionResult> results = pensionDetailsRepository.findResults(pensionType, bankType, bankName, after,
+				pageSize + 1);
+		if (results.size() <= pageSize) {
+			return new PensionResultPage(results, null);
+		}
+		List<PensionResult> page = results.subList(0, pageSize);
+		return new PensionResultPage(page, page.get(pageSize - 1).getAadhaarNumber());
+	}
+}
@@ -1,20 +1,135 @@
 package com.cts.processPension.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.nio.CharBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
- * Utility class to convert string to date in yyyy-MM-dd format
- * 
+ * Utility class to convert between dates and their yyyy-MM-dd (ISO) or
+ * dd/MM/yyyy (display) text.
+ * <p>
+ * Dates from 1900 to 2099 are cached by epoch day once seen, together with
+ * both of their texts, so formatting them again allocates nothing and parsed
+ * dates are shared. The caches are filled racily, which is safe because
+ * LocalDate and String are immutable: a thread missing another thread's entry
+ * only builds an equal value.
+ *
  * @author Shubham Nawani
  *
  */
 public class DateUtil {
+
+	private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+
+	private static final long FIRST_DAY = LocalDate.of(1900, 1, 1).toEpochDay();
+
+	private static final int DAYS = (int) (LocalDate.of(2100, 1, 1).toEpochDay() - FIRST_DAY);
+
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+
+	private static final LocalDate[] DATES = new LocalDate[DAYS];
+
+	private static final String[] ISO = new String[DAYS];
+
+	private static final String[] DISPLAY = new String[DAYS];
+
 	private DateUtil() {
 	}
 
-	public static Date parseDate(String date) throws ParseException {
-		return new SimpleDateFormat("yyyy-MM-dd").parse(date);
+	/**
+	 * Parse a date in yyyy-MM-dd format
+	 *
+	 * @throws DateTimeParseException if the text is not a valid date
+	 */
+	public static LocalDate parseDate(CharSequence date) {
+		return cached(DateTimeFormatter.ISO_LOCAL_DATE.parse(date, LocalDate::from));
+	}
+
+	/**
+	 * Parse a date in yyyy-MM-dd format from a region of a character buffer
+	 *
+	 * @throws DateTimeParseException if the text is not a valid date
+	 */
+	public static LocalDate parseDate(char[] c, int offset, int length) {
+		return parseDate(CharBuffer.wrap(c, offset, length));
+	}
+
+	/**
+	 * @return the UTC date of an instant given as milliseconds since the epoch
+	 */
+	public static LocalDate ofEpochMilli(long epochMilli) {
+		long epochDay = Math.floorDiv(epochMilli, MILLIS_PER_DAY);
+		int index = index(epochDay);
+		if (index < 0) {
+			return LocalDate.ofEpochDay(epochDay);
+		}
+		LocalDate date = DATES[index];
+		if (date == null) {
+			date = LocalDate.ofEpochDay(epochDay);
+			DATES[index] = date;
+		}
+		return date;
+	}
+
+	/**
+	 * @return the date in yyyy-MM-dd format
+	 */
+	public static String format(LocalDate date) {
+		int index = index(date.toEpochDay());
+		if (index < 0) {
+			return DateTimeFormatter.ISO_LOCAL_DATE.format(date);
+		}
+		String text = ISO[index];
+		if (text == null) {
+			text = DateTimeFormatter.ISO_LOCAL_DATE.format(date);
+			ISO[index] = text;
+		}
+		return text;
+	}
+
+	/**
+	 * @return the date in dd/MM/yyyy format
+	 */
+	public static String formatDisplay(LocalDate date) {
+		int index = index(date.toEpochDay());
+		if (index < 0) {
+			return DISPLAY_FORMAT.format(date);
+		}
+		String text = DISPLAY[index];
+		if (text == null) {
+			text = DISPLAY_FORMAT.format(date);
+			DISPLAY[index] = text;
+		}
+		return text;
+	}
+
+	/**
+	 * @return the cached date of the given fields
+	 * @throws java.time.DateTimeException if the fields are not a valid date
+	 */
+	public static LocalDate of(int year, int month, int day) {
+		return cached(LocalDate.of(year, month, day));
+	}
+
+	/**
+	 * @return the cached date equal to the date, caching it if none is
+	 */
+	private static LocalDate cached(LocalDate date) {
+		int index = index(date.toEpochDay());
+		if (index < 0) {
+			return date;
+		}
+		LocalDate cached = DATES[index];
+		if (cached == null) {
+			DATES[index] = date;
+			return date;
+		}
+		return cached;
+	}
+
+	private static int index(long epochDay) {
+		long index = epochDay - FIRST_DAY;
+		return index >= 0 && index < DAYS ? (int) index : -1;
 	}
-}
\ No newline at end of file
+}
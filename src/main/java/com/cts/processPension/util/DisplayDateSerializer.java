@@ -0,0 +1,27 @@
+package com.cts.processPension.util;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a date as dd/MM/yyyy text cached by {@link DateUtil}, the format of
+ * the dates in our responses
+ *
+ */
+public class DisplayDateSerializer extends StdSerializer<LocalDate> {
+
+	private static final long serialVersionUID = 1L;
+
+	public DisplayDateSerializer() {
+		super(LocalDate.class);
+	}
+
+	@Override
+	public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeString(DateUtil.formatDisplay(value));
+	}
+}
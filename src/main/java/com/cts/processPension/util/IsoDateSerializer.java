@@ -0,0 +1,26 @@
+package com.cts.processPension.util;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a date as yyyy-MM-dd text cached by {@link DateUtil}
+ *
+ */
+public class IsoDateSerializer extends StdSerializer<LocalDate> {
+
+	private static final long serialVersionUID = 1L;
+
+	public IsoDateSerializer() {
+		super(LocalDate.class);
+	}
+
+	@Override
+	public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeString(DateUtil.format(value));
+	}
+}
@@ -0,0 +1,29 @@
+package com.cts.processPension.util;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores every LocalDate attribute in a DATE column. Dates read back go
+ * through the {@link DateUtil} cache, so loading pensioners born on the same
+ * day shares one instance.
+ *
+ */
+@Converter(autoApply = true)
+public class LocalDateConverter implements AttributeConverter<LocalDate, Date> {
+
+	@Override
+	public Date convertToDatabaseColumn(LocalDate attribute) {
+		return attribute == null ? null : Date.valueOf(attribute);
+	}
+
+	@Override
+	@SuppressWarnings("deprecation")
+	public LocalDate convertToEntityAttribute(Date column) {
+		return column == null ? null
+				: DateUtil.of(column.getYear() + 1900, column.getMonth() + 1, column.getDate());
+	}
+}
@@ -0,0 +1,44 @@
+package com.cts.processPension.util;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads a date from yyyy-MM-dd text with {@link DateUtil#parseDate(char[], int, int)},
+ * straight from the parser buffer, or from milliseconds since the epoch as
+ * written for a java.util.Date
+ *
+ */
+public class LocalDateDeserializer extends StdDeserializer<LocalDate> {
+
+	private static final long serialVersionUID = 1L;
+
+	public LocalDateDeserializer() {
+		super(LocalDate.class);
+	}
+
+	@Override
+	public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == JsonToken.VALUE_NUMBER_INT) {
+			return DateUtil.ofEpochMilli(parser.getLongValue());
+		}
+		if (token != JsonToken.VALUE_STRING) {
+			return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+		}
+		if (parser.getTextLength() == 0) {
+			return null;
+		}
+		try {
+			return DateUtil.parseDate(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+		} catch (DateTimeParseException e) {
+			return (LocalDate) context.handleWeirdStringValue(LocalDate.class, parser.getText(), e.getMessage());
+		}
+	}
+}
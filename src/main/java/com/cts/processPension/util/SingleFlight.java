@@ -0,0 +1,104 @@
+package com.cts.processPension.util;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key: the first caller runs the
+ * loader and every caller arriving while it runs waits for that result
+ * instead of loading again. Keys are tracked in a concurrent map, so callers
+ * only ever wait on a load of their own key.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class SingleFlight<K, V> {
+
+	private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	private final Runnable onCoalesced;
+
+	/**
+	 * @param onCoalesced called for every caller served by another caller's load
+	 */
+	public SingleFlight(Runnable onCoalesced) {
+		this.onCoalesced = onCoalesced;
+	}
+
+	/**
+	 * Run the loader unless a load of the same key is already in flight, in
+	 * which case wait for that load and return its result or rethrow its
+	 * exception
+	 */
+	public V run(K key, Supplier<V> loader) {
+		CompletableFuture<V> load = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+		if (running != null) {
+			onCoalesced.run();
+			try {
+				return running.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				if (e.getCause() instanceof Error) {
+					throw (Error) e.getCause();
+				}
+				throw e;
+			}
+		}
+		try {
+			V value = loader.get();
+			load.complete(value);
+			return value;
+		} catch (Throwable e) {
+			// errors too, a waiter must never be left waiting
+			load.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, load);
+		}
+	}
+
+	/**
+	 * Start the asynchronous loader unless a load of the same key is already in
+	 * flight, in which case return that load; loads started by {@link #run} and
+	 * by this method are shared
+	 *
+	 * @return future completed with the result of the load
+	 */
+	public CompletableFuture<V> runAsync(K key, Supplier<CompletableFuture<V>> loader) {
+		CompletableFuture<V> load = new CompletableFuture<>();
+		CompletableFuture<V> running = inFlight.putIfAbsent(key, load);
+		if (running != null) {
+			onCoalesced.run();
+			return running;
+		}
+		try {
+			loader.get().whenComplete((value, e) -> {
+				inFlight.remove(key, load);
+				if (e == null) {
+					load.complete(value);
+				} else if (e instanceof CompletionException && e.getCause() != null) {
+					load.completeExceptionally(e.getCause());
+				} else {
+					load.completeExceptionally(e);
+				}
+			});
+		} catch (Throwable e) {
+			inFlight.remove(key, load);
+			load.completeExceptionally(e);
+		}
+		return load;
+	}
+
+	/**
+	 * @return number of loads currently running
+	 */
+	public int size() {
+		return inFlight.size();
+	}
+}
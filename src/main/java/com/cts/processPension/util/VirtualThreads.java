@@ -0,0 +1,31 @@
+package com.cts.processPension.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Utility class to create virtual threads. The build still targets Java 17,
+ * so the Java 21 API is looked up at runtime.
+ *
+ */
+public class VirtualThreads {
+	private VirtualThreads() {
+	}
+
+	public static boolean isSupported() {
+		return Runtime.version().feature() >= 21;
+	}
+
+	/**
+	 * @return executor starting a new virtual thread for every task
+	 * @throws IllegalStateException when not running on Java 21 or later
+	 */
+	public static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Virtual threads require a Java 21 runtime, running on "
+					+ Runtime.version(), e);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+-- Schema of the entities as created by hibernate before migrations were used
+
+create table bank (
+	account_number bigint not null,
+	bank_name varchar(255),
+	bank_type varchar(255),
+	primary key (account_number)
+);
+
+create table pensioner_detail (
+	aadhaar_number varchar(255) not null,
+	account_number bigint,
+	allowance double,
+	date_of_birth timestamp,
+	fetched_at timestamp,
+	name varchar(255),
+	pan varchar(255),
+	pension_type varchar(255),
+	salary double,
+	bank_account_number bigint,
+	primary key (aadhaar_number),
+	constraint fk_pensioner_detail_bank foreign key (bank_account_number) references bank
+);
+
+create table pension_amount_detail (
+	aadhaar_number varchar(255) not null,
+	bank_service_charge double,
+	fingerprint varchar(44),
+	pension_amount double,
+	total_amount double,
+	primary key (aadhaar_number)
+);
+
+create table pensioner_input (
+	aadhaar_number varchar(255) not null,
+	primary key (aadhaar_number)
+);
+
+create table disbursement_partition (
+	id varchar(255) not null,
+	completed boolean,
+	last_aadhaar_number varchar(255),
+	partition_index integer,
+	processed bigint,
+	run_month varchar(255),
+	updated_at timestamp,
+	primary key (id)
+);
@@ -0,0 +1,6 @@
+-- Indexes on the columns pensioners and monthly runs are looked up by
+
+create index idx_pensioner_detail_pan on pensioner_detail (pan);
+create index idx_pensioner_detail_account_number on pensioner_detail (account_number);
+create index idx_pensioner_detail_pension_type on pensioner_detail (pension_type);
+create index idx_disbursement_partition_run_month on disbursement_partition (run_month);
@@ -0,0 +1,8 @@
+-- Range and claim of every monthly run partition, so that instances running
+-- the same month never process a partition twice and a run is not resumed
+-- with other partitions
+
+alter table disbursement_partition add column lower_bound varchar(255);
+alter table disbursement_partition add column upper_bound varchar(255);
+alter table disbursement_partition add column claimed_by varchar(255);
+alter table disbursement_partition add column claimed_until timestamp;
@@ -0,0 +1,138 @@
+package com.cts.processPension.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.cts.processPension.cache.PensionerDetailCache;
+import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.repository.PensionerDetailsRepository;
+import com.cts.processPension.util.DateUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test cases for streaming disbursement files
+ *
+ */
+@SpringBootTest(properties = { "pension.bulk.chunk-size=2", "pension.bulk.parallelism=2",
+		"pension.bulk.read-window=64" })
+class DisbursementFileProcessorTest {
+
+	@Autowired
+	private DisbursementFileProcessor disbursementFileProcessor;
+
+	@Autowired
+	private PensionerDetailCache pensionerDetailCache;
+
+	@Autowired
+	private PensionerDetailsRepository pensionerDetailsRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockBean
+	private PensionerDetailsClient pensionerDetailClient;
+
+	@TempDir
+	Path directory;
+
+	@BeforeEach
+	void setup() {
+		pensionerDetailCache.invalidateAll();
+		pensionerDetailsRepository.deleteAll();
+		for (int i = 0; i < 5; i++) {
+			String aadhaarNumber = "11111111110" + i;
+			Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar(aadhaarNumber))
+					.thenReturn(new PensionerDetail("Pensioner, " + i, aadhaarNumber, DateUtil.parseDate("1960-01-0" + (i + 1)),
+							"BRPPV3218K", 100000, 10000, i % 2 == 0 ? "self" : "family", 456000 + i,
+							new Bank("SBI", 456000 + i, "public")));
+		}
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar("999999999999")).thenReturn(new PensionerDetail());
+	}
+
+	@Test
+	@DisplayName("CSV input is turned into a CSV disbursement file in input order")
+	void testCsvFile() throws Exception {
+		Path input = write("input.csv", "aadhaarNumber\n111111111100\n111111111101\n\n1234\n111111111102\n"
+				+ "999999999999\n111111111103\n111111111104");
+		Path output = directory.resolve("disbursement.csv");
+
+		DisbursementCheckpoint result = disbursementFileProcessor.process(input, output);
+
+		List<String> lines = Files.readAllLines(output);
+		assertEquals(8, lines.size());
+		assertTrue(lines.get(0).startsWith("aadhaarNumber,name"));
+		assertEquals("111111111100,\"Pensioner, 0\",01/01/1960,BRPPV3218K,self,90000.0,500.0,89500.0,", lines.get(1));
+		assertEquals("111111111101,\"Pensioner, 1\",02/01/1960,BRPPV3218K,family,60000.0,500.0,59500.0,", lines.get(2));
+		assertEquals("1234,,,,,,,,Aadhaar Number is in invalid format", lines.get(3));
+		assertEquals("999999999999,,,,,,,,Details entered are incorrect", lines.get(5));
+		assertTrue(lines.get(7).startsWith("111111111104,"));
+		assertEquals(7, result.getProcessed());
+		assertEquals(2, result.getFailed());
+		assertFalse(Files.exists(DisbursementFileProcessor.checkpointPath(output)));
+	}
+
+	@Test
+	@DisplayName("JSON lines input is turned into a JSON lines disbursement file")
+	void testJsonLinesFile() throws Exception {
+		Path input = write("input.jsonl", "{\"aadhaarNumber\":\"111111111100\"}\n{\"aadhaarNumber\":\"111111111101\"}\n");
+		Path output = directory.resolve("disbursement.jsonl");
+
+		disbursementFileProcessor.process(input, output);
+
+		List<String> lines = Files.readAllLines(output);
+		assertEquals(2, lines.size());
+		assertEquals(89500, objectMapper.readTree(lines.get(0)).get("totalAmount").asDouble());
+		assertEquals("02/01/1960", objectMapper.readTree(lines.get(1)).get("dateOfBirth").asText());
+	}
+
+	@Test
+	@DisplayName("Interrupted job resumes from its checkpoint")
+	void testResumeFromCheckpoint() throws Exception {
+		Path input = write("input.csv", "111111111100\n111111111101\n111111111102\n111111111103\n");
+		Path output = directory.resolve("disbursement.csv");
+		disbursementFileProcessor.process(input, output);
+		List<String> expected = Files.readAllLines(output);
+
+		// simulate a job that died after its first chunk while writing the second
+		String firstChunk = String.join("\n", expected.subList(0, 3)) + "\n";
+		Files.write(output, (firstChunk + "111111111102,partial").getBytes(StandardCharsets.UTF_8));
+		DisbursementCheckpoint checkpoint = new DisbursementCheckpoint();
+		checkpoint.setInputSize(Files.size(input));
+		checkpoint.setInputModified(Files.getLastModifiedTime(input).toMillis());
+		checkpoint.setInputPosition("111111111100\n111111111101\n".length());
+		checkpoint.setOutputPosition(firstChunk.getBytes(StandardCharsets.UTF_8).length);
+		checkpoint.setProcessed(2);
+		Files.write(DisbursementFileProcessor.checkpointPath(output), objectMapper.writeValueAsBytes(checkpoint));
+		pensionerDetailCache.invalidateAll();
+		pensionerDetailsRepository.deleteAll();
+		Mockito.clearInvocations(pensionerDetailClient);
+
+		DisbursementCheckpoint result = disbursementFileProcessor.process(input, output);
+
+		assertEquals(expected, Files.readAllLines(output));
+		assertEquals(4, result.getProcessed());
+		Mockito.verify(pensionerDetailClient, Mockito.never()).getPensionerDetailByAadhaar("111111111100");
+		Mockito.verify(pensionerDetailClient).getPensionerDetailByAadhaar("111111111103");
+	}
+
+	private Path write(String name, String content) throws Exception {
+		return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,158 @@
+package com.cts.processPension.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.DisbursementPartition;
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.repository.DisbursementPartitionRepository;
+import com.cts.processPension.repository.PensionDetailsRepository;
+import com.cts.processPension.repository.PensionerDetailsRepository;
+import com.cts.processPension.util.DateUtil;
+
+/**
+ * Test cases for the monthly disbursement run
+ *
+ */
+@SpringBootTest(properties = { "pension.monthly-run.partitions=4", "pension.monthly-run.parallelism=2",
+		"pension.monthly-run.chunk-size=40" })
+class MonthlyDisbursementRunTest {
+
+	private static final int PENSIONERS = 500;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Autowired
+	private MonthlyDisbursementRun monthlyDisbursementRun;
+
+	@Autowired
+	private PensionerDetailsRepository pensionerDetailsRepository;
+
+	@Autowired
+	private PensionDetailsRepository pensionDetailsRepository;
+
+	@Autowired
+	private DisbursementPartitionRepository disbursementPartitionRepository;
+
+	@BeforeEach
+	void setup() {
+		// pensioners spread over the whole aadhaar number space
+		LocalDate dateOfBirth = DateUtil.parseDate("1999-09-14");
+		List<PensionerDetail> pensioners = new ArrayList<>();
+		for (int i = 0; i < PENSIONERS; i++) {
+			pensioners.add(new PensionerDetail("Vishnu", aadhaarNumber(i), dateOfBirth, "BRPPV3218K", 100000, 10000,
+					i % 2 == 0 ? "self" : "family", 700000 + i, new Bank("SBI", 700000 + i, i % 3 == 0 ? "public" : "private")));
+		}
+		pensionerDetailsRepository.upsertAll(pensioners);
+	}
+
+	@Test
+	@DisplayName("A run stores the amount of every pensioner and a second run of the month does nothing")
+	void testRun() {
+		DisbursementRunSummary summary = monthlyDisbursementRun.run(YearMonth.of(2026, 1));
+
+		assertTrue(summary.getProcessed() >= PENSIONERS);
+		assertAmount(0, 89500); // self, public bank
+		assertAmount(1, 59450); // family, private bank
+		assertAmount(2, 89450); // self, private bank
+		assertAmount(3, 59500); // family, public bank
+		for (int i = 0; i < PENSIONERS; i++) {
+			assertTrue(pensionDetailsRepository.existsById(aadhaarNumber(i)));
+		}
+		List<DisbursementPartition> partitions = disbursementPartitionRepository.findByRunMonth("2026-01");
+		assertEquals(4, partitions.size());
+		assertTrue(partitions.stream().allMatch(DisbursementPartition::isCompleted));
+
+		assertEquals(0, monthlyDisbursementRun.run(YearMonth.of(2026, 1)).getProcessed());
+
+		// the next month reads everything again but only writes what changed
+		DisbursementRunSummary nextMonth = monthlyDisbursementRun.run(YearMonth.of(2026, 2));
+		assertEquals(summary.getProcessed(), nextMonth.getProcessed());
+		assertEquals(0, nextMonth.getChanged());
+	}
+
+	@Test
+	@DisplayName("An interrupted run resumes after the last checkpoint")
+	void testResume() {
+		monthlyDisbursementRun.run(YearMonth.of(2026, 3));
+		// the salaries of two pensioners change, one before and one after the checkpoint
+		raiseSalary(100);
+		raiseSalary(460);
+
+		// partitions 0 to 2 are done, partition 3 stopped after pensioner 450
+		for (int partition = 0; partition < 4; partition++) {
+			DisbursementPartition checkpoint = new DisbursementPartition("2026-04", partition,
+					monthlyDisbursementRun.lowerBound(partition), monthlyDisbursementRun.upperBound(partition));
+			checkpoint.setCompleted(partition < 3);
+			if (partition == 3) {
+				checkpoint.setLastAadhaarNumber(aadhaarNumber(450));
+			}
+			disbursementPartitionRepository.save(checkpoint);
+		}
+		DisbursementRunSummary summary = monthlyDisbursementRun.run(YearMonth.of(2026, 4));
+
+		assertEquals(PENSIONERS - 451, summary.getProcessed());
+		assertEquals(1, summary.getChanged());
+		assertAmount(100, 89450);
+		assertAmount(460, 169500);
+	}
+
+	@Test
+	@DisplayName("Runs of the same month on two instances process every pensioner once")
+	void testConcurrentRuns() {
+		MonthlyDisbursementRun otherInstance = applicationContext.getAutowireCapableBeanFactory()
+				.createBean(MonthlyDisbursementRun.class);
+		CompletableFuture<DisbursementRunSummary> first = CompletableFuture
+				.supplyAsync(() -> monthlyDisbursementRun.run(YearMonth.of(2026, 5)));
+		CompletableFuture<DisbursementRunSummary> second = CompletableFuture
+				.supplyAsync(() -> otherInstance.run(YearMonth.of(2026, 5)));
+
+		assertEquals(pensionerDetailsRepository.count(),
+				first.join().getProcessed() + second.join().getProcessed());
+		assertTrue(disbursementPartitionRepository.findByRunMonth("2026-05").stream()
+				.allMatch(DisbursementPartition::isCompleted));
+	}
+
+	@Test
+	@DisplayName("A month started with other partitions is not resumed")
+	void testPartitionsChanged() {
+		DisbursementPartition checkpoint = new DisbursementPartition("2026-06", 1, "100000000000", "200000000000");
+		disbursementPartitionRepository.save(checkpoint);
+
+		assertThrows(IllegalStateException.class, () -> monthlyDisbursementRun.run(YearMonth.of(2026, 6)));
+		assertEquals(1, disbursementPartitionRepository.findByRunMonth("2026-06").size());
+	}
+
+	private void raiseSalary(int pensioner) {
+		pensionerDetailsRepository.upsertAll(Collections.singletonList(new PensionerDetail("Vishnu", aadhaarNumber(pensioner),
+				DateUtil.parseDate("1999-09-14"), "BRPPV3218K", 200000, 10000, "self", 700000 + pensioner,
+				new Bank("SBI", 700000 + pensioner, "public"))));
+	}
+
+	private void assertAmount(int pensioner, double totalAmount) {
+		PensionAmountDetail amount = pensionDetailsRepository.findById(aadhaarNumber(pensioner)).orElseThrow();
+		assertEquals(totalAmount, amount.getTotalAmount());
+	}
+
+	private static String aadhaarNumber(int pensioner) {
+		return String.format("%012d", 2_000_000_000L * pensioner + 7);
+	}
+}
@@ -0,0 +1,76 @@
+package com.cts.processPension.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.cts.processPension.exception.ServiceUnavailableException;
+import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.service.ProcessPensionService;
+import com.cts.processPension.util.DateUtil;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Request.HttpMethod;
+
+/**
+ * Test cases for the circuit breaker around the pensioner detail
+ * micro-service
+ *
+ */
+@SpringBootTest(properties = { "pension.pensioner-cache.l2-ttl=0s", "pension.pensioner-circuit.sliding-window-size=2",
+		"pension.pensioner-circuit.failure-rate-threshold=100",
+		"pension.pensioner-circuit.wait-in-open-state=1m" })
+class PensionerDetailCacheTest {
+
+	@Autowired
+	private ProcessPensionService processPensionService;
+
+	@Autowired
+	private PensionerDetailCache pensionerDetailCache;
+
+	@MockBean
+	private PensionerDetailsClient pensionerDetailClient;
+
+	@Test
+	@DisplayName("Open circuit serves the stored snapshot marked as stale")
+	void testOpenCircuitFallsBackToSnapshot() throws Exception {
+		PensionerInput pensionerInput = new PensionerInput("123456789021");
+		PensionerDetail details = new PensionerDetail("Vishnu", "123456789021", DateUtil.parseDate("1999-09-14"),
+				"BRPPV3218K", 100000, 10000, "self", 456690, new Bank("SBI", 456690, "public"));
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar("123456789021")).thenReturn(details);
+		assertFalse(processPensionService.getPensionDetails(null, pensionerInput).isStale());
+
+		// the service fails until the circuit opens, failures are relayed meanwhile
+		FeignException unavailable = new FeignException.ServiceUnavailable("Service is offline",
+				Request.create(HttpMethod.GET, "", Collections.emptyMap(), null, null, null), null);
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar(Mockito.anyString())).thenThrow(unavailable);
+		for (int i = 0; i < 2; i++) {
+			pensionerDetailCache.invalidateAll();
+			assertThrows(FeignException.class, () -> processPensionService.getPensionDetails(null, pensionerInput));
+		}
+
+		pensionerDetailCache.invalidateAll();
+		PensionDetail pensionDetail = processPensionService.getPensionDetails(null, pensionerInput);
+
+		assertTrue(pensionDetail.isStale());
+		assertEquals(89500, pensionDetail.getPensionAmount());
+		Mockito.verify(pensionerDetailClient, Mockito.times(3)).getPensionerDetailByAadhaar("123456789021");
+		assertThrows(ServiceUnavailableException.class,
+				() -> processPensionService.getPensionDetails(null, new PensionerInput("123456789022")));
+	}
+}
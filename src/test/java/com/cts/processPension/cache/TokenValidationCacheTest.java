@@ -0,0 +1,80 @@
+package com.cts.processPension.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.cts.processPension.feign.AuthorisationClient;
+
+/**
+ * Test cases for the token validation cache
+ *
+ */
+@SpringBootTest
+class TokenValidationCacheTest {
+
+	@Autowired
+	private TokenValidationCache tokenValidationCache;
+
+	@MockBean
+	private AuthorisationClient authorisationClient;
+
+	@BeforeEach
+	void setup() {
+		tokenValidationCache.invalidateAll();
+	}
+
+	@Test
+	@DisplayName("Valid token is validated remotely only once")
+	void testValidTokenIsCached() {
+		String token = jwt(System.currentTimeMillis() / 1000 + 3600);
+		when(authorisationClient.validate(token)).thenReturn(true);
+
+		assertTrue(tokenValidationCache.isValid(token));
+		assertTrue(tokenValidationCache.isValid(token));
+
+		verify(authorisationClient, times(1)).validate(token);
+	}
+
+	@Test
+	@DisplayName("Invalid token is cached for the negative TTL")
+	void testInvalidTokenIsCached() {
+		when(authorisationClient.validate("user1")).thenReturn(false);
+
+		assertFalse(tokenValidationCache.isValid("user1"));
+		assertFalse(tokenValidationCache.isValid("user1"));
+
+		verify(authorisationClient, times(1)).validate("user1");
+	}
+
+	@Test
+	@DisplayName("Expired token is never served from the cache")
+	void testExpiredTokenIsNotCached() {
+		String token = jwt(System.currentTimeMillis() / 1000 - 60);
+		when(authorisationClient.validate(token)).thenReturn(true);
+
+		tokenValidationCache.isValid(token);
+		tokenValidationCache.isValid(token);
+
+		verify(authorisationClient, times(2)).validate(token);
+	}
+
+	private static String jwt(long exp) {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+		String payload = encoder.encodeToString(("{\"sub\":\"admin\",\"exp\":" + exp + "}").getBytes(StandardCharsets.UTF_8));
+		return "Bearer " + header + "." + payload + ".signature";
+	}
+}
@@ -0,0 +1,165 @@
+package com.cts.processPension.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import com.cts.processPension.cache.PensionerDetailCache;
+import com.cts.processPension.feign.PeerPensionClient;
+import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PeerPensionerDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.util.DateUtil;
+
+/**
+ * Test cases for the partitioning of cached pensioners between two local
+ * instances listed by the simple discovery client
+ *
+ */
+@SpringBootTest(properties = { "pension.ownership.enabled=true", "pension.ownership.self=localhost:8082",
+		"pension.ownership.peer-secret=" + CacheOwnershipTest.PEER_SECRET,
+		"spring.cloud.discovery.client.simple.instances.PROCESS-PENSION-SERVICE[0].uri=http://localhost:8082",
+		"spring.cloud.discovery.client.simple.instances.PROCESS-PENSION-SERVICE[1].uri=http://localhost:8083" })
+class CacheOwnershipTest {
+
+	static final String PEER_SECRET = "test-peer-secret";
+
+	private static final String TOKEN = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9";
+
+	@Autowired
+	private CacheOwnership cacheOwnership;
+
+	@Autowired
+	private PensionerDetailCache pensionerDetailCache;
+
+	@MockBean
+	private PeerPensionClient peerPensionClient;
+
+	@MockBean
+	private PensionerDetailsClient pensionerDetailsClient;
+
+	@BeforeEach
+	void setup() {
+		pensionerDetailCache.invalidateAll();
+	}
+
+	@Test
+	@DisplayName("Pensioners owned by the other instance are looked up there and not cached locally")
+	void testLookupIsForwardedToOwner() {
+		String aadhaarNumber = aadhaarNumber(false);
+		PensionerDetail owned = pensioner(aadhaarNumber);
+		owned.setFetchedAt(Instant.parse("2021-06-01T10:15:30Z"));
+		owned.setStale(true);
+		when(peerPensionClient.getPensionerDetail(URI.create("http://localhost:8083"), PEER_SECRET, TOKEN,
+				aadhaarNumber)).thenReturn(PeerPensionerDetail.of(owned));
+
+		PensionerDetail pensionerDetail = pensionerDetailCache.get(aadhaarNumber, TOKEN);
+		assertEquals(aadhaarNumber, pensionerDetail.getAadhaarNumber());
+		assertEquals("self", pensionerDetail.getPensionType());
+		assertEquals("public", pensionerDetail.getBank().getBankType());
+		assertEquals(owned.getFetchedAt(), pensionerDetail.getFetchedAt());
+		assertTrue(pensionerDetail.isStale());
+		assertNull(pensionerDetailCache.getCached(aadhaarNumber));
+		verify(pensionerDetailsClient, never()).getPensionerDetailByAadhaar(anyString());
+	}
+
+	@Test
+	@DisplayName("Batch lookups on pool threads are forwarded to the owner with the caller's token")
+	void testBatchLookupIsForwardedToOwner() {
+		String other = aadhaarNumber(false, 1);
+		String own = aadhaarNumber(true, 1);
+		when(peerPensionClient.getPensionerDetail(URI.create("http://localhost:8083"), PEER_SECRET, TOKEN, other))
+				.thenReturn(PeerPensionerDetail.of(pensioner(other)));
+		when(pensionerDetailsClient.getPensionerDetailByAadhaar(own)).thenReturn(pensioner(own));
+
+		Map<String, CompletableFuture<PensionerDetail>> results = pensionerDetailCache
+				.getAll(Arrays.asList(other, own), TOKEN, Executors.newFixedThreadPool(2));
+
+		assertEquals(other, results.get(other).join().getAadhaarNumber());
+		assertEquals(own, results.get(own).join().getAadhaarNumber());
+		assertNull(pensionerDetailCache.getCached(other));
+		verify(pensionerDetailsClient, never()).getPensionerDetailByAadhaar(other);
+	}
+
+	@Test
+	@DisplayName("Lookups without a token are loaded locally")
+	void testLookupWithoutTokenIsLocal() {
+		String aadhaarNumber = aadhaarNumber(false, 2);
+		when(pensionerDetailsClient.getPensionerDetailByAadhaar(aadhaarNumber)).thenReturn(pensioner(aadhaarNumber));
+
+		assertEquals(aadhaarNumber, pensionerDetailCache.get(aadhaarNumber, null).getAadhaarNumber());
+		verify(peerPensionClient, never()).getPensionerDetail(any(), any(), any(), any());
+	}
+
+	@Test
+	@DisplayName("Only the shared secret is accepted from peers")
+	void testPeerSecret() {
+		assertTrue(cacheOwnership.isPeer(PEER_SECRET));
+		assertFalse(cacheOwnership.isPeer("wrong-secret"));
+		assertFalse(cacheOwnership.isPeer(null));
+	}
+
+	@Test
+	@DisplayName("Pensioners owned by this instance are loaded and cached locally")
+	void testOwnLookupIsLocal() {
+		String aadhaarNumber = aadhaarNumber(true);
+		when(pensionerDetailsClient.getPensionerDetailByAadhaar(aadhaarNumber)).thenReturn(pensioner(aadhaarNumber));
+
+		assertEquals(aadhaarNumber, pensionerDetailCache.get(aadhaarNumber, TOKEN).getAadhaarNumber());
+		assertEquals(aadhaarNumber, pensionerDetailCache.getCached(aadhaarNumber).getAadhaarNumber());
+		verify(peerPensionClient, never()).getPensionerDetail(any(), any(), any(), any());
+	}
+
+	@Test
+	@DisplayName("The owner is looked up locally when it can not be reached")
+	void testUnreachableOwnerFallsBackToLocal() {
+		String aadhaarNumber = aadhaarNumber(false);
+		when(peerPensionClient.getPensionerDetail(any(), anyString(), anyString(), anyString()))
+				.thenThrow(new IllegalStateException("Connection refused"));
+		when(pensionerDetailsClient.getPensionerDetailByAadhaar(aadhaarNumber)).thenReturn(pensioner(aadhaarNumber));
+
+		assertEquals(aadhaarNumber, pensionerDetailCache.get(aadhaarNumber, TOKEN).getAadhaarNumber());
+		assertFalse(cacheOwnership.isOwner(aadhaarNumber));
+	}
+
+	private String aadhaarNumber(boolean own) {
+		return aadhaarNumber(own, 0);
+	}
+
+	/**
+	 * @return the n-th aadhaar number owned, or not, by this instance
+	 */
+	private String aadhaarNumber(boolean own, int n) {
+		return LongStream.range(987654000000L, 987654001000L).mapToObj(String::valueOf)
+				.filter(aadhaarNumber -> cacheOwnership.isOwner(aadhaarNumber) == own).collect(Collectors.toList())
+				.get(n);
+	}
+
+	private static PensionerDetail pensioner(String aadhaarNumber) {
+		return new PensionerDetail("Vishnu", aadhaarNumber, DateUtil.parseDate("1996-11-23"), "BRPPV3218K", 100000,
+				10000, "self", 456678, new Bank("ICICI", 456678, "public"));
+	}
+}
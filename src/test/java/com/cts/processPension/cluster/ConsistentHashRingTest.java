@@ -0,0 +1,62 @@
+package com.cts.processPension.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for the consistent hash ring
+ *
+ */
+class ConsistentHashRingTest {
+
+	private static final int KEYS = 30000;
+
+	@Test
+	@DisplayName("Keys are spread evenly between the members")
+	void testBalance() {
+		ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("a:8082", "b:8082", "c:8082"), 128);
+		Map<String, Integer> owned = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			owned.merge(ring.owner(aadhaarNumber(i)), 1, Integer::sum);
+		}
+		assertEquals(3, owned.size());
+		owned.values().forEach(count -> assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 / 5, owned::toString));
+	}
+
+	@Test
+	@DisplayName("A joining member only takes keys, it never moves keys between the others")
+	void testJoin() {
+		ConsistentHashRing before = new ConsistentHashRing(Arrays.asList("a:8082", "b:8082", "c:8082"), 128);
+		ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("c:8082", "a:8082", "b:8082", "d:8082"), 128);
+		int moved = 0;
+		for (int i = 0; i < KEYS; i++) {
+			String key = aadhaarNumber(i);
+			if (!before.owner(key).equals(after.owner(key))) {
+				assertEquals("d:8082", after.owner(key));
+				moved++;
+			}
+		}
+		assertTrue(moved > KEYS / 5 && moved < KEYS / 3, String.valueOf(moved));
+	}
+
+	@Test
+	@DisplayName("A single member owns every key")
+	void testSingleMember() {
+		ConsistentHashRing ring = new ConsistentHashRing(Collections.singleton("a:8082"), 16);
+		for (int i = 0; i < 100; i++) {
+			assertEquals("a:8082", ring.owner(aadhaarNumber(i)));
+		}
+	}
+
+	private static String aadhaarNumber(int i) {
+		return String.valueOf(123456000000L + i);
+	}
+}
@@ -0,0 +1,49 @@
+package com.cts.processPension.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+/**
+ * Test cases for the bounded task executor
+ *
+ */
+class BoundedTaskExecutorTest {
+
+	@Test
+	@DisplayName("Tasks over the limit are rejected until a running task completes")
+	void testRejectsOverLimit() throws Exception {
+		ExecutorService unbounded = Executors.newCachedThreadPool();
+		try {
+			BoundedTaskExecutor executor = new BoundedTaskExecutor(unbounded, 1);
+			CountDownLatch release = new CountDownLatch(1);
+			Future<Boolean> running = executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+
+			assertThrows(TaskRejectedException.class, () -> executor.submit(() -> "rejected"));
+
+			release.countDown();
+			running.get(5, TimeUnit.SECONDS);
+			// the permit is released once the task has returned
+			Future<String> next = null;
+			for (int attempt = 0; next == null && attempt < 100; attempt++) {
+				try {
+					next = executor.submit(() -> "accepted");
+				} catch (TaskRejectedException e) {
+					Thread.sleep(10);
+				}
+			}
+			assertEquals("accepted", next.get(5, TimeUnit.SECONDS));
+		} finally {
+			unbounded.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package com.cts.processPension.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import com.netflix.appinfo.ApplicationInfoManager;
+import com.netflix.appinfo.InstanceInfo.InstanceStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import springfox.documentation.spring.web.plugins.Docket;
+
+/**
+ * Test cases for the production startup settings
+ *
+ */
+@SpringBootTest(properties = { "eureka.instance.initial-status=STARTING", "pension.swagger.enabled=false" })
+class StartupWarmUpTest {
+
+	@Autowired
+	private ApplicationInfoManager applicationInfoManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@Test
+	@DisplayName("The instance is marked UP and startup times are published once warmed up")
+	void testWarmUp() {
+		assertEquals(InstanceStatus.UP, applicationInfoManager.getInfo().getStatus());
+
+		TimeGauge started = meterRegistry.get("pension.startup").tag("phase", "started").timeGauge();
+		TimeGauge ready = meterRegistry.get("pension.startup").tag("phase", "ready").timeGauge();
+		assertTrue(started.value(TimeUnit.MILLISECONDS) > 0);
+		assertTrue(ready.value(TimeUnit.MILLISECONDS) >= started.value(TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	@DisplayName("Swagger is not configured when disabled")
+	void testSwaggerDisabled() {
+		assertFalse(applicationContext.getBeanNamesForType(Docket.class).length > 0);
+	}
+}
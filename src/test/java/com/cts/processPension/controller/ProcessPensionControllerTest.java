@@ -1,11 +1,18 @@
 package com.cts.processPension.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.text.ParseException;
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.hamcrest.Matchers;
@@ -16,15 +23,27 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.cts.processPension.cache.PensionerDetailCache;
+import com.cts.processPension.cache.TokenValidationCache;
+import com.cts.processPension.cluster.CacheOwnership;
 import com.cts.processPension.exception.ErrorResponse;
 import com.cts.processPension.exception.NotFoundException;
 import com.cts.processPension.feign.AuthorisationClient;
 import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.metrics.PensionMetrics;
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionBatchResult;
 import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionResult;
+import com.cts.processPension.model.PensionResultPage;
+import com.cts.processPension.model.PensionerDetail;
 import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.service.ParallelPensionLookup;
 import com.cts.processPension.service.ProcessPensionServiceImpl;
 import com.cts.processPension.util.DateUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -39,7 +58,9 @@ import feign.Request.HttpMethod;
  *
  */
 
-@WebMvcTest(ProcessPensionController.class)
+@WebMvcTest(controllers = ProcessPensionController.class, properties = { "pension.rate-limit.enabled=true",
+		"pension.rate-limit.client.rate=10000", "pension.rate-limit.client.burst=10000" })
+@Import({ TokenValidationCache.class, PensionMetrics.class })
 class ProcessPensionControllerTest {
 
 	@Autowired
@@ -54,6 +75,15 @@ class ProcessPensionControllerTest {
 	@MockBean
 	private ProcessPensionServiceImpl processPensionService;
 
+	@MockBean
+	private ParallelPensionLookup parallelPensionLookup;
+
+	@MockBean
+	private PensionerDetailCache pensionerDetailCache;
+
+	@MockBean
+	private CacheOwnership cacheOwnership;
+
 	@Autowired
 	private ObjectMapper objectMapper;
 
@@ -61,9 +91,12 @@ class ProcessPensionControllerTest {
 	private PensionerInput invalidPensionerInput;
 	private PensionDetail pensionDetail;
 
+	@Autowired
+	private TokenValidationCache tokenValidationCache;
+
 	// setup for process-pension input
 	@BeforeEach
-	void setup() throws ParseException {
+	void setup() {
 		
 		// valid PensionerInput
 		validPensionerInput = new PensionerInput("123456789012");
@@ -72,7 +105,10 @@ class ProcessPensionControllerTest {
 		invalidPensionerInput = new PensionerInput("30054646895");
 
 		// correct PensionDetails
-		pensionDetail = new PensionDetail("Vishnu", DateUtil.parseDate("14-09-1999"), "BRPPV3218K", "family", 50000);
+		pensionDetail = new PensionDetail("Vishnu", DateUtil.parseDate("1999-09-14"), "BRPPV3218K", "family", 50000);
+
+		// start every test without cached validations
+		tokenValidationCache.invalidateAll();
 
 		// mock authorization microservice response
 		when(authorisationClient.validate(ArgumentMatchers.anyString())).thenReturn(true);
@@ -100,7 +136,7 @@ class ProcessPensionControllerTest {
 	void testGetPensionDetails_withValidInput() throws Exception {
 
 		// mock disbursePensionSerive response
-		when(processPensionService.getPensionDetails(ArgumentMatchers.any())).thenReturn(pensionDetail);
+		when(processPensionService.getPensionDetails(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(pensionDetail);
 
 		// performing test
 		mockMvc.perform(post("/processPension").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
@@ -141,7 +177,7 @@ class ProcessPensionControllerTest {
 	void testPensionInput_withInvalidInput() throws Exception {
 
 		// mock processPensionService response
-		when(processPensionService.getPensionDetails(ArgumentMatchers.any()))
+		when(processPensionService.getPensionDetails(ArgumentMatchers.any(), ArgumentMatchers.any()))
 				.thenThrow(new NotFoundException("Details entered are incorrect"));
 
 		// performing test
@@ -159,7 +195,7 @@ class ProcessPensionControllerTest {
 	@DisplayName("Verify Response when feign client returns valid error response")
 	void testDisbursePension_withValidFeignResponse() throws JsonProcessingException, Exception {
 		// mock processPensionService getPensionDetails to throw FeignException
-		when(processPensionService.getPensionDetails(ArgumentMatchers.any())).thenThrow(new FeignException.BadRequest(
+		when(processPensionService.getPensionDetails(ArgumentMatchers.any(), ArgumentMatchers.any())).thenThrow(new FeignException.BadRequest(
 				"Service is offline", Request.create(HttpMethod.GET, "", Collections.emptyMap(), null, null, null),
 				objectMapper.writeValueAsBytes(new ErrorResponse("Internal Server Error"))));
 
@@ -175,7 +211,7 @@ class ProcessPensionControllerTest {
 	@DisplayName("Verify Response when feign client returns invalid error response")
 	void testPensionInput_withInvalidFeignResponse() throws JsonProcessingException, Exception {
 		// mock processPensionService getPensionDetails to throw FeignException
-		when(processPensionService.getPensionDetails(ArgumentMatchers.any())).thenThrow(new FeignException.BadRequest(
+		when(processPensionService.getPensionDetails(ArgumentMatchers.any(), ArgumentMatchers.any())).thenThrow(new FeignException.BadRequest(
 				"Invalid Response", Request.create(HttpMethod.GET, "", Collections.emptyMap(), null, null, null),
 				"Unknown error response".getBytes()));
 
@@ -190,7 +226,7 @@ class ProcessPensionControllerTest {
 	@DisplayName("Verify Response when feign client returns empty message response")
 	void testPensionInput_withEmptyFeignResponse() throws JsonProcessingException, Exception {
 		// mock processPensionService getPensionDetails to throw FeignException
-		when(processPensionService.getPensionDetails(ArgumentMatchers.any())).thenThrow(new FeignException.BadRequest(
+		when(processPensionService.getPensionDetails(ArgumentMatchers.any(), ArgumentMatchers.any())).thenThrow(new FeignException.BadRequest(
 				"Invalid Response", Request.create(HttpMethod.GET, "", Collections.emptyMap(), null, null, null),
 				"".getBytes()));
 
@@ -200,4 +236,173 @@ class ProcessPensionControllerTest {
 				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9")).andExpect(status().isBadRequest())
 				.andExpect(jsonPath("$.message", Matchers.equalTo("Invalid Request")));
 	}
+
+	@Test
+	@DisplayName("Verify batches over the maximum size are rejected with 413")
+	void testProcessPensionBatch_tooLarge() throws Exception {
+
+		// performing test, a batch holds at most 500 pensioners
+		mockMvc.perform(post("/processPension/batch").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9")
+				.content(objectMapper.writeValueAsString(Collections.nCopies(501, validPensionerInput)))
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isPayloadTooLarge());
+		verify(processPensionService, never()).getPensionDetailsBatch(ArgumentMatchers.any(), ArgumentMatchers.anyList());
+	}
+
+	@Test
+	@DisplayName("Verify per pensioner results after sending post request to /processPension/batch")
+	void testGetPensionDetailsBatch() throws Exception {
+
+		// mock processPensionService batch response
+		when(processPensionService.getPensionDetailsBatch(ArgumentMatchers.any(), ArgumentMatchers.anyList())).thenReturn(Arrays.asList(
+				new PensionBatchResult("123456789012", pensionDetail, null),
+				new PensionBatchResult("30054646895", null, "Aadhaar Number is in invalid format")));
+
+		// performing test
+		mockMvc.perform(post("/processPension/batch").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9")
+				.content(objectMapper.writeValueAsString(Arrays.asList(validPensionerInput, invalidPensionerInput)))
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].pensionDetail.pensionAmount", Matchers.equalTo(50000.0)))
+				.andExpect(jsonPath("$[1].errorMessage", Matchers.equalTo("Aadhaar Number is in invalid format")));
+	}
+
+	@Test
+	@DisplayName("Verify response after sending get request to /pensions")
+	void testGetPensions() throws Exception {
+
+		// mock processPensionService page of results
+		when(processPensionService.getPensionResults("self", null, null, null, 1)).thenReturn(new PensionResultPage(
+				Collections.singletonList(new PensionResult("123456789012", "Vishnu", "self", "SBI", "public", 50000.0,
+						500.0, 49500.0)),
+				"123456789012"));
+
+		// performing test
+		mockMvc.perform(get("/pensions").param("pensionType", "self").param("size", "1")
+				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.results[0].totalAmount", Matchers.equalTo(49500.0)))
+				.andExpect(jsonPath("$.next", Matchers.equalTo("123456789012")));
+	}
+
+	@Test
+	@DisplayName("Verify response after sending get request with invalid token to /pensions")
+	void testGetPensions_withInvalidToken() throws Exception {
+
+		// mock authorization microservice response for invalid token
+		when(authorisationClient.validate(ArgumentMatchers.anyString())).thenReturn(false);
+
+		// performing test
+		mockMvc.perform(get("/pensions").header("Authorization", "user1").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	@DisplayName("Verify requests over the rate limit of a token are rejected with 429")
+	void testProcessPension_overTokenRateLimit() throws Exception {
+
+		// mock disbursePensionSerive response
+		when(processPensionService.getPensionDetails(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(pensionDetail);
+
+		// performing test, a token may send a burst of 40 requests refilled at 20
+		// per second, well below the limit of the client address
+		String token = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.rate-limited";
+		MockHttpServletResponse response;
+		int sent = 0;
+		do {
+			response = mockMvc.perform(post("/processPension").contentType(MediaType.APPLICATION_JSON)
+					.characterEncoding("utf-8").header("Authorization", token)
+					.content(objectMapper.writeValueAsString(validPensionerInput)).accept(MediaType.APPLICATION_JSON))
+					.andReturn().getResponse();
+			sent++;
+		} while (response.getStatus() != 429 && sent < 100);
+		assertEquals(429, response.getStatus());
+		assertTrue(sent > 40);
+		assertNotNull(response.getHeader("Retry-After"));
+		assertTrue(response.getContentAsString().contains("Rate limit exceeded"));
+	}
+
+	@Test
+	@DisplayName("Verify batches take one token per pensioner")
+	void testProcessPensionBatch_chargedPerPensioner() throws Exception {
+
+		// mock processPensionService responses
+		when(processPensionService.getPensionDetailsBatch(ArgumentMatchers.any(), ArgumentMatchers.anyList()))
+				.thenReturn(Collections.emptyList());
+		when(processPensionService.getPensionDetails(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(pensionDetail);
+
+		// performing test, a batch of 60 pensioners borrows beyond the burst of 40
+		String token = "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9.batch-limited";
+		mockMvc.perform(post("/processPension/batch").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+				.header("Authorization", token)
+				.content(objectMapper.writeValueAsString(Collections.nCopies(60, validPensionerInput)))
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isOk());
+		mockMvc.perform(post("/processPension").contentType(MediaType.APPLICATION_JSON).characterEncoding("utf-8")
+				.header("Authorization", token).content(objectMapper.writeValueAsString(validPensionerInput))
+				.accept(MediaType.APPLICATION_JSON)).andExpect(status().isTooManyRequests());
+	}
+
+	/***************************************
+	 * 
+	 * Test cases for getOwnedPensionerDetail()
+	 * 
+	 ***************************************
+	 */
+	@Test
+	@DisplayName("Verify other instances get the calculation fields and staleness of an owned pensioner")
+	void testGetOwnedPensionerDetail() throws Exception {
+
+		// mock the peer secret and the cached pensioner details
+		when(cacheOwnership.isPeer("peer-secret")).thenReturn(true);
+		PensionerDetail pensionerDetail = new PensionerDetail("Vishnu", "123456789012",
+				DateUtil.parseDate("1999-09-14"), "BRPPV3218K", 100000, 10000, "family", 456678,
+				new Bank("ICICI", 456678, "private"));
+		pensionerDetail.setFetchedAt(Instant.parse("2021-06-01T10:15:30Z"));
+		pensionerDetail.setStale(true);
+		when(pensionerDetailCache.getOwned("123456789012")).thenReturn(pensionerDetail);
+
+		// performing test
+		mockMvc.perform(get("/internal/pensionerDetail/123456789012").header("X-Pension-Peer-Secret", "peer-secret")
+				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.aadhaarNumber").value("123456789012"))
+				.andExpect(jsonPath("$.dateOfBirth").value("1999-09-14"))
+				.andExpect(jsonPath("$.salary").value(100000.0))
+				.andExpect(jsonPath("$.bankType").value("private"))
+				.andExpect(jsonPath("$.fetchedAt").value("2021-06-01T10:15:30Z"))
+				.andExpect(jsonPath("$.stale").value(true))
+				.andExpect(jsonPath("$.accountNumber").doesNotExist())
+				.andExpect(jsonPath("$.bank").doesNotExist());
+	}
+
+	@Test
+	@DisplayName("Verify the internal endpoint rejects callers without the peer secret")
+	void testGetOwnedPensionerDetail_withoutPeerSecret() throws Exception {
+
+		// mock the peer secret
+		when(cacheOwnership.isPeer("peer-secret")).thenReturn(true);
+
+		// performing test, a valid user token is not enough
+		mockMvc.perform(get("/internal/pensionerDetail/123456789012")
+				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(get("/internal/pensionerDetail/123456789012").header("X-Pension-Peer-Secret", "guessed")
+				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isForbidden());
+		verify(pensionerDetailCache, never()).getOwned(ArgumentMatchers.anyString());
+	}
+
+	@Test
+	@DisplayName("Verify the internal endpoint rejects malformed aadhaar numbers")
+	void testGetOwnedPensionerDetail_withInvalidAadhaarNumber() throws Exception {
+
+		// mock the peer secret
+		when(cacheOwnership.isPeer("peer-secret")).thenReturn(true);
+
+		// performing test
+		mockMvc.perform(get("/internal/pensionerDetail/12345678901x").header("X-Pension-Peer-Secret", "peer-secret")
+				.header("Authorization", "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+		verify(pensionerDetailCache, never()).getOwned(ArgumentMatchers.anyString());
+	}
 }
@@ -0,0 +1,101 @@
+package com.cts.processPension.feign;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cloud.openfeign.FeignContext;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+import feign.Client;
+import feign.Request;
+import feign.httpclient.ApacheHttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Test cases for the pooled transport of the Feign clients
+ *
+ */
+@SpringBootTest
+class PooledClientConfigurationTest {
+
+	@Autowired
+	private FeignContext feignContext;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockBean
+	private AuthorisationClient authorisationClient;
+
+	@MockBean
+	private PensionerDetailsClient pensionerDetailClient;
+
+	@Test
+	@DisplayName("Each client gets a load balanced pooled transport with its own settings")
+	void testPerClientSettings() {
+		Client client = feignContext.getInstance("AUTH-SERVICE", Client.class);
+		assertThat(client).isInstanceOf(FeignBlockingLoadBalancerClient.class);
+		assertThat(((FeignBlockingLoadBalancerClient) client).getDelegate()).isInstanceOf(ApacheHttpClient.class);
+
+		Request.Options authOptions = feignContext.getInstance("AUTH-SERVICE", Request.Options.class);
+		assertThat(authOptions.readTimeoutMillis()).isEqualTo(2000);
+		assertThat(authOptions.connectTimeoutMillis()).isEqualTo(2000);
+
+		HttpClientSettings detailSettings = feignContext.getInstance("PENSIONER-DETAIL-SERVICE",
+				HttpClientSettings.class);
+		assertThat(detailSettings.getMaxConnections()).isEqualTo(100);
+		assertThat(detailSettings.isCompression()).isTrue();
+		assertThat(detailSettings.getReadTimeout().toMillis()).isEqualTo(5000);
+
+		assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+				.tag("httpclient", "pensioner-detail-service").gauge().value()).isEqualTo(100);
+		assertThat(meterRegistry.get("pension.http.connection.acquire").tag("client", "auth-service").timer())
+				.isNotNull();
+	}
+
+	@Test
+	@DisplayName("Sequential requests reuse one keep-alive connection")
+	void testConnectionReuse() throws Exception {
+		Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/validate", exchange -> {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+			byte[] body = "true".getBytes();
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		TimedConnectionManager connectionManager = PooledClientConfiguration
+				.createConnectionManager(new HttpClientSettings(), registry.timer("acquire"));
+		try (CloseableHttpClient httpClient = PooledClientConfiguration.createHttpClient(new HttpClientSettings(),
+				connectionManager)) {
+			for (int i = 0; i < 3; i++) {
+				try (CloseableHttpResponse response = httpClient.execute(
+						new HttpGet("http://localhost:" + server.getAddress().getPort() + "/validate"))) {
+					assertThat(EntityUtils.toString(response.getEntity())).isEqualTo("true");
+				}
+			}
+		} finally {
+			server.stop(0);
+		}
+		assertThat(clientPorts).hasSize(1);
+		assertThat(registry.timer("acquire").count()).isEqualTo(3);
+	}
+}
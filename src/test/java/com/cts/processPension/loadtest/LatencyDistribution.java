@@ -0,0 +1,75 @@
+package com.cts.processPension.loadtest;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Latency a stub adds to each response, parsed from a specification:
+ * <ul>
+ * <li>fixed:20ms</li>
+ * <li>uniform:5ms-50ms</li>
+ * <li>exponential:20ms (mean)</li>
+ * <li>lognormal:20ms,0.5 (median and sigma, a long tail for sigma near 1)</li>
+ * </ul>
+ *
+ */
+public abstract class LatencyDistribution {
+
+	/**
+	 * @return next latency in nanoseconds
+	 */
+	public abstract long sampleNanos();
+
+	public static LatencyDistribution parse(String specification) {
+		String[] parts = specification.trim().split(":", 2);
+		if (parts.length != 2) {
+			throw new IllegalArgumentException("Latency " + specification + " is not <distribution>:<parameters>");
+		}
+		String parameters = parts[1];
+		switch (parts[0]) {
+		case "fixed":
+			long fixed = nanos(parameters);
+			return of(specification, random -> fixed);
+		case "uniform":
+			String[] range = parameters.split("-");
+			long min = nanos(range[0]);
+			long max = nanos(range[1]);
+			return of(specification, random -> min + (long) (random.nextDouble() * (max - min)));
+		case "exponential":
+			double mean = nanos(parameters);
+			return of(specification, random -> (long) (-mean * Math.log(1 - random.nextDouble())));
+		case "lognormal":
+			String[] values = parameters.split(",");
+			double mu = Math.log(nanos(values[0]));
+			double sigma = Double.parseDouble(values[1]);
+			return of(specification, random -> (long) Math.exp(mu + sigma * random.nextGaussian()));
+		default:
+			throw new IllegalArgumentException("Unknown latency distribution " + parts[0]);
+		}
+	}
+
+	private static long nanos(String duration) {
+		return DurationStyle.detectAndParse(duration.trim()).toNanos();
+	}
+
+	private static LatencyDistribution of(String specification, Sampler sampler) {
+		return new LatencyDistribution() {
+
+			@Override
+			public long sampleNanos() {
+				return Math.max(0, sampler.sample(ThreadLocalRandom.current()));
+			}
+
+			@Override
+			public String toString() {
+				return specification;
+			}
+		};
+	}
+
+	private interface Sampler {
+		long sample(Random random);
+	}
+}
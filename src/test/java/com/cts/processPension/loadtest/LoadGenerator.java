@@ -0,0 +1,161 @@
+package com.cts.processPension.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Open-loop load on /processPension: requests start at the target rate
+ * whatever the response times, and each latency is measured from the time
+ * its request was due rather than sent, so a stalled service shows in the
+ * percentiles instead of silently lowering the load (coordinated omission).
+ *
+ */
+public class LoadGenerator {
+
+	private final HttpClient httpClient;
+
+	private final URI uri;
+
+	private final int pensioners;
+
+	private final int tokens;
+
+	private final int maxInFlight;
+
+	private final Semaphore inFlight;
+
+	private final Duration timeout;
+
+	private final Recorder latencies = new Recorder(3);
+
+	private final LongAdder successes = new LongAdder();
+
+	private final LongAdder clientErrors = new LongAdder();
+
+	private final LongAdder serverErrors = new LongAdder();
+
+	private final LongAdder failures = new LongAdder();
+
+	private final LongAdder skipped = new LongAdder();
+
+	/**
+	 * @param baseUri     base URI of the process pension service
+	 * @param pensioners  distinct aadhaar numbers requested, fewer means more
+	 *                    cache hits
+	 * @param tokens      distinct tokens sent
+	 * @param maxInFlight requests waiting for a response at most, a request due
+	 *                    beyond it is skipped and counted
+	 * @param timeout     response timeout
+	 */
+	public LoadGenerator(String baseUri, int pensioners, int tokens, int maxInFlight, Duration timeout) {
+		this.httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		this.uri = URI.create(baseUri + "/processPension");
+		this.pensioners = pensioners;
+		this.tokens = tokens;
+		this.maxInFlight = maxInFlight;
+		this.inFlight = new Semaphore(maxInFlight);
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Send requests at the given rate for the given time and wait for the
+	 * responses
+	 *
+	 * @return latencies in microseconds of the requests sent meanwhile
+	 */
+	public Result run(double requestsPerSecond, Duration duration) throws InterruptedException {
+		latencies.reset();
+		long[] before = counts();
+		long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		long sent = 0;
+		for (long due = start; due < end; due = start + ++sent * intervalNanos) {
+			long wait = due - System.nanoTime();
+			if (wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+			send(due);
+		}
+		// wait for the outstanding responses, they time out at the latest
+		inFlight.acquire(maxInFlight);
+		inFlight.release(maxInFlight);
+		long elapsed = System.nanoTime() - start;
+		long[] after = counts();
+		return new Result(sent, after[0] - before[0], after[1] - before[1], after[2] - before[2],
+				after[3] - before[3], after[4] - before[4], Duration.ofNanos(elapsed), latencies.getIntervalHistogram());
+	}
+
+	private void send(long due) {
+		if (!inFlight.tryAcquire()) {
+			skipped.increment();
+			return;
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String aadhaarNumber = Long.toString(100000000000L + random.nextInt(pensioners));
+		HttpRequest request = HttpRequest.newBuilder(uri).timeout(timeout)
+				.header("Authorization", "Bearer load-test-" + random.nextInt(tokens))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("{\"aadhaarNumber\":\"" + aadhaarNumber + "\"}"))
+				.build();
+		httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+			latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due));
+			if (error != null) {
+				failures.increment();
+			} else if (response.statusCode() >= 200 && response.statusCode() < 300) {
+				successes.increment();
+			} else if (response.statusCode() < 500) {
+				clientErrors.increment();
+			} else {
+				serverErrors.increment();
+			}
+			inFlight.release();
+		});
+	}
+
+	private long[] counts() {
+		return new long[] { successes.sum(), clientErrors.sum(), serverErrors.sum(), failures.sum(), skipped.sum() };
+	}
+
+	/**
+	 * Counts and latencies of one run
+	 */
+	public static class Result {
+
+		final long sent;
+		final long successes;
+		final long clientErrors;
+		final long serverErrors;
+		final long failures;
+		final long skipped;
+		final Duration elapsed;
+		final Histogram latencies;
+
+		Result(long sent, long successes, long clientErrors, long serverErrors, long failures, long skipped,
+				Duration elapsed, Histogram latencies) {
+			this.sent = sent;
+			this.successes = successes;
+			this.clientErrors = clientErrors;
+			this.serverErrors = serverErrors;
+			this.failures = failures;
+			this.skipped = skipped;
+			this.elapsed = elapsed;
+			this.latencies = latencies;
+		}
+
+		double throughput() {
+			return (sent - skipped) / (elapsed.toNanos() / 1e9);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.cts.processPension.loadtest;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.cts.processPension.ProcessPensionServiceApplication;
+
+/**
+ * End-to-end load test of /processPension on one machine without network
+ * access: the process pension service runs in this JVM with Eureka disabled,
+ * its Feign clients pointed at {@link StubServices} through the simple
+ * discovery client, and a {@link LoadGenerator} drives it at a target rate.
+ * Prints the throughput, response counts and a latency histogram, and exits
+ * with 1 when a latency or error budget is exceeded so it can gate a rollout.
+ *
+ * Harness settings are --loadtest.* arguments, every other argument is passed
+ * to the service, for example:
+ * mvn -Ploadtest verify -Dloadtest.args="--loadtest.rps=500
+ * --loadtest.detail.latency=lognormal:30ms,0.8 --pension.parallel.enabled=true"
+ *
+ * <ul>
+ * <li>loadtest.rps (200): requests per second</li>
+ * <li>loadtest.duration (30s), loadtest.warmup (10s)</li>
+ * <li>loadtest.pensioners (10000): distinct aadhaar numbers</li>
+ * <li>loadtest.tokens (100): distinct tokens</li>
+ * <li>loadtest.auth.latency (lognormal:5ms,0.5), loadtest.auth.error-rate
+ * (0)</li>
+ * <li>loadtest.detail.latency (lognormal:20ms,0.5),
+ * loadtest.detail.error-rate (0)</li>
+ * <li>loadtest.max-in-flight (2000), loadtest.timeout (10s)</li>
+ * <li>loadtest.max-p99 (none): 99th percentile budget, e.g. 250ms</li>
+ * <li>loadtest.max-error-rate (none): budget for non-2xx responses, failed and
+ * skipped requests, e.g. 0.01</li>
+ * </ul>
+ * The rate limits of the service are disabled unless enabled by an argument,
+ * the generated load comes from a single client address.
+ *
+ */
+public class LoadTest {
+
+	private static final String PREFIX = "--loadtest.";
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> settings = new HashMap<>();
+		List<String> serviceArgs = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith(PREFIX) && arg.contains("=")) {
+				settings.put(arg.substring(PREFIX.length(), arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+			} else if (!arg.isBlank()) {
+				serviceArgs.add(arg);
+			}
+		}
+		double rps = Double.parseDouble(settings.getOrDefault("rps", "200"));
+		Duration duration = duration(settings.getOrDefault("duration", "30s"));
+		Duration warmup = duration(settings.getOrDefault("warmup", "10s"));
+
+		int exitCode;
+		try (StubServices stubs = new StubServices(
+				LatencyDistribution.parse(settings.getOrDefault("auth.latency", "lognormal:5ms,0.5")),
+				Double.parseDouble(settings.getOrDefault("auth.error-rate", "0")),
+				LatencyDistribution.parse(settings.getOrDefault("detail.latency", "lognormal:20ms,0.5")),
+				Double.parseDouble(settings.getOrDefault("detail.error-rate", "0")))) {
+			ConfigurableApplicationContext context = startService(stubs, serviceArgs);
+			try {
+				int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+				LoadGenerator generator = new LoadGenerator("http://localhost:" + port,
+						Integer.parseInt(settings.getOrDefault("pensioners", "10000")),
+						Integer.parseInt(settings.getOrDefault("tokens", "100")),
+						Integer.parseInt(settings.getOrDefault("max-in-flight", "2000")),
+						duration(settings.getOrDefault("timeout", "10s")));
+
+				System.out.printf("Warming up for %s at %.0f requests/s%n", warmup, rps);
+				generator.run(rps, warmup);
+				long authCalls = stubs.getAuthCalls();
+				long pensionerDetailCalls = stubs.getPensionerDetailCalls();
+				System.out.printf("Measuring for %s at %.0f requests/s%n", duration, rps);
+				LoadGenerator.Result result = generator.run(rps, duration);
+				report(System.out, result, stubs.getAuthCalls() - authCalls,
+						stubs.getPensionerDetailCalls() - pensionerDetailCalls);
+				exitCode = checkBudgets(result, settings);
+			} finally {
+				context.close();
+			}
+		}
+		System.exit(exitCode);
+	}
+
+	private static ConfigurableApplicationContext startService(StubServices stubs, List<String> serviceArgs) {
+		List<String> args = new ArrayList<>();
+		args.add("--server.port=0");
+		args.add("--eureka.client.enabled=false");
+		args.add("--spring.cloud.discovery.client.simple.instances[AUTH-SERVICE][0].uri=" + stubs.getAuthServiceUri());
+		args.add("--spring.cloud.discovery.client.simple.instances[PENSIONER-DETAIL-SERVICE][0].uri="
+				+ stubs.getPensionerDetailServiceUri());
+		args.add("--spring.jpa.show-sql=false");
+		args.add("--logging.level.[com.cts.processPension]=INFO");
+		args.add("--pension.rate-limit.enabled=false");
+		// given last so they override the defaults above
+		args.addAll(serviceArgs);
+		// a devtools restart would run the service a second time
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		return SpringApplication.run(ProcessPensionServiceApplication.class, args.toArray(new String[0]));
+	}
+
+	private static void report(PrintStream out, LoadGenerator.Result result, long authCalls,
+			long pensionerDetailCalls) {
+		out.println();
+		out.printf("Requests      %10d sent, %d skipped (max in flight reached)%n", result.sent, result.skipped);
+		out.printf("Responses     %10d 2xx, %d 4xx, %d 5xx, %d failed%n", result.successes, result.clientErrors,
+				result.serverErrors, result.failures);
+		out.printf("Throughput    %10.1f requests/s in %s%n", result.throughput(), result.elapsed);
+		out.printf("Stub calls    %10d /validate, %d /pensionerDetailByAadhaar%n", authCalls, pensionerDetailCalls);
+		out.printf("Latency (ms)  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n", percentile(result, 50),
+				percentile(result, 90), percentile(result, 99), percentile(result, 99.9),
+				result.latencies.getMaxValue() / 1000.0);
+		out.println();
+		result.latencies.outputPercentileDistribution(out, 5, 1000.0);
+	}
+
+	private static int checkBudgets(LoadGenerator.Result result, Map<String, String> settings) {
+		int exitCode = 0;
+		if (settings.containsKey("max-p99")) {
+			double budget = duration(settings.get("max-p99")).toNanos() / 1e6;
+			if (percentile(result, 99) > budget) {
+				System.out.printf("FAILED: p99 %.2f ms is over the %.2f ms budget%n", percentile(result, 99), budget);
+				exitCode = 1;
+			}
+		}
+		if (settings.containsKey("max-error-rate")) {
+			double budget = Double.parseDouble(settings.get("max-error-rate"));
+			double errorRate = (result.clientErrors + result.serverErrors + result.failures + result.skipped)
+					/ (double) result.sent;
+			if (errorRate > budget) {
+				System.out.printf("FAILED: error rate %.4f is over the %.4f budget%n", errorRate, budget);
+				exitCode = 1;
+			}
+		}
+		return exitCode;
+	}
+
+	private static double percentile(LoadGenerator.Result result, double percentile) {
+		return result.latencies.getValueAtPercentile(percentile) / 1000.0;
+	}
+
+	private static Duration duration(String value) {
+		return DurationStyle.detectAndParse(value);
+	}
+}
@@ -0,0 +1,111 @@
+package com.cts.processPension.loadtest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-ins for AUTH-SERVICE (/validate) and PENSIONER-DETAIL-SERVICE
+ * (/pensionerDetailByAadhaar/{aadhaarNumber}). Each answers after a latency
+ * drawn from its distribution and fails the given fraction of requests with
+ * a 500.
+ *
+ */
+public class StubServices implements AutoCloseable {
+
+	private final HttpServer authService;
+
+	private final HttpServer pensionerDetailService;
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	private final LongAdder authCalls = new LongAdder();
+
+	private final LongAdder pensionerDetailCalls = new LongAdder();
+
+	public StubServices(LatencyDistribution authLatency, double authErrorRate,
+			LatencyDistribution pensionerDetailLatency, double pensionerDetailErrorRate) throws IOException {
+		// otherwise the separate header and body writes wait for delayed ACKs
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		authService = start(executor);
+		authService.createContext("/validate", exchange -> {
+			authCalls.increment();
+			respond(exchange, authLatency, authErrorRate, "true");
+		});
+		pensionerDetailService = start(executor);
+		pensionerDetailService.createContext("/pensionerDetailByAadhaar/", exchange -> {
+			pensionerDetailCalls.increment();
+			String path = exchange.getRequestURI().getPath();
+			respond(exchange, pensionerDetailLatency, pensionerDetailErrorRate,
+					pensioner(path.substring(path.lastIndexOf('/') + 1)));
+		});
+	}
+
+	public String getAuthServiceUri() {
+		return "http://localhost:" + authService.getAddress().getPort();
+	}
+
+	public String getPensionerDetailServiceUri() {
+		return "http://localhost:" + pensionerDetailService.getAddress().getPort();
+	}
+
+	public long getAuthCalls() {
+		return authCalls.sum();
+	}
+
+	public long getPensionerDetailCalls() {
+		return pensionerDetailCalls.sum();
+	}
+
+	@Override
+	public void close() {
+		authService.stop(0);
+		pensionerDetailService.stop(0);
+		executor.shutdownNow();
+	}
+
+	private static HttpServer start(ExecutorService executor) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		server.setExecutor(executor);
+		server.start();
+		return server;
+	}
+
+	private static void respond(HttpExchange exchange, LatencyDistribution latency, double errorRate, String body)
+			throws IOException {
+		try {
+			TimeUnit.NANOSECONDS.sleep(latency.sampleNanos());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		boolean failed = ThreadLocalRandom.current().nextDouble() < errorRate;
+		byte[] bytes = (failed ? "{\"message\":\"stub failure\"}" : body).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(failed ? 500 : 200, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+
+	/**
+	 * Pensioner details of the aadhaar number, with an account of its own and
+	 * pension and bank types varying with its last digit
+	 */
+	private static String pensioner(String aadhaarNumber) {
+		int digit = aadhaarNumber.isEmpty() ? 0 : aadhaarNumber.charAt(aadhaarNumber.length() - 1) - '0';
+		String accountNumber = aadhaarNumber.matches("[0-9]{1,18}") ? Long.toString(Long.parseLong(aadhaarNumber))
+				: "0";
+		return "{\"name\":\"Pensioner " + aadhaarNumber + "\",\"aadhaarNumber\":\"" + aadhaarNumber
+				+ "\",\"dateOfBirth\":\"1960-09-14\",\"pan\":\"BRPPV3218K\",\"salary\":" + (50000 + 1000 * digit)
+				+ ",\"allowance\":10000,\"pensionType\":\"" + (digit % 2 == 0 ? "self" : "family")
+				+ "\",\"accountNumber\":" + accountNumber + ",\"bank\":{\"bankName\":\"SBI\",\"accountNumber\":"
+				+ accountNumber + ",\"bankType\":\"" + (digit % 3 == 0 ? "public" : "private") + "\"}}";
+	}
+}
@@ -0,0 +1,74 @@
+package com.cts.processPension.metrics;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.cts.processPension.feign.AuthorisationClient;
+import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.util.DateUtil;
+
+/**
+ * Test cases for the Prometheus export of the process pension meters
+ *
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class PensionMetricsTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private AuthorisationClient authorisationClient;
+
+	@MockBean
+	private PensionerDetailsClient pensionerDetailClient;
+
+	@Test
+	@DisplayName("Stage timers and request outcomes are exported in Prometheus format")
+	void testPrometheusExport() throws Exception {
+		Bank bank = new Bank("SBI", 456682, "public");
+		PensionerDetail details = new PensionerDetail("Vishnu", "123456789017", DateUtil.parseDate("1999-09-14"),
+				"BRPPV3218K", 100000, 10000, "self", 456682, bank);
+		Mockito.when(authorisationClient.validate("metrics-token")).thenReturn(true);
+		Mockito.when(authorisationClient.validate("invalid-token")).thenReturn(false);
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar("123456789017")).thenReturn(details);
+
+		processPension("metrics-token").andExpect(status().isOk());
+		processPension("invalid-token").andExpect(status().isForbidden());
+
+		mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk())
+				.andExpect(content().string(containsString("pension_stage_seconds_bucket")))
+				.andExpect(content().string(containsString("stage=\"authorisation\"")))
+				.andExpect(content().string(containsString("stage=\"pensioner-detail\"")))
+				.andExpect(content().string(containsString("stage=\"pension-amount\"")))
+				.andExpect(content().string(containsString("stage=\"serialization\"")))
+				.andExpect(content().string(containsString("quantile=\"0.99\"")))
+				.andExpect(content().string(containsString("outcome=\"success\"")))
+				.andExpect(content().string(containsString("outcome=\"invalid-token\"")))
+				.andExpect(content().string(containsString("cache_gets_total")));
+	}
+
+	private ResultActions processPension(String token) throws Exception {
+		return mockMvc.perform(post("/processPension").header("Authorization", token)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"aadhaarNumber\":\"123456789017\"}"));
+	}
+}
@@ -0,0 +1,55 @@
+package com.cts.processPension.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for the striped token buckets
+ *
+ */
+class StripedTokenBucketsTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	@DisplayName("A full bucket admits its burst, then refills at the rate")
+	void testBurstThenRefill() {
+		StripedTokenBuckets buckets = new StripedTokenBuckets(10, 5, 1024);
+		long now = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, buckets.tryAcquire("token", now));
+		}
+		long wait = buckets.tryAcquire("token", now);
+		assertEquals(SECOND / 10, wait);
+
+		assertEquals(0, buckets.tryAcquire("token", now + wait));
+		assertTrue(buckets.tryAcquire("token", now + wait) > 0);
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, buckets.tryAcquire("token", now + wait + SECOND));
+		}
+	}
+
+	@Test
+	@DisplayName("Tokens missing for a large request are borrowed from the next refills")
+	void testBorrowedTokens() {
+		StripedTokenBuckets buckets = new StripedTokenBuckets(10, 5, 1024);
+		long now = System.nanoTime();
+		assertEquals(0, buckets.tryAcquire("token", 20, now));
+		// 15 tokens borrowed, the next one is available after 16 refills
+		assertEquals(16 * SECOND / 10, buckets.tryAcquire("token", now));
+		assertEquals(0, buckets.tryAcquire("token", now + 16 * SECOND / 10));
+	}
+
+	@Test
+	@DisplayName("Keys draw from their own buckets")
+	void testKeysAreIndependent() {
+		StripedTokenBuckets buckets = new StripedTokenBuckets(1, 1, 1 << 16);
+		long now = System.nanoTime();
+		assertEquals(0, buckets.tryAcquire("10.0.0.1", now));
+		assertTrue(buckets.tryAcquire("10.0.0.1", now) > 0);
+		assertEquals(0, buckets.tryAcquire("10.0.0.2", now));
+	}
+}
@@ -0,0 +1,134 @@
+package com.cts.processPension.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.util.DateUtil;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Test cases for the reactive process pension handler
+ *
+ */
+@SpringBootTest(properties = { "spring.main.web-application-type=reactive", "pension.rate-limit.enabled=true",
+		"pension.rate-limit.client.rate=10000", "pension.rate-limit.client.burst=10000" })
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+class ProcessPensionHandlerTest {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@MockBean
+	private ReactiveAuthorisationClient authorisationClient;
+
+	@MockBean
+	private ReactivePensionerDetailsClient pensionerDetailsClient;
+
+	@Test
+	@DisplayName("Verify response after sending post request with valid data to /processPension")
+	void testProcessPension_withValidInput() {
+		PensionerDetail details = new PensionerDetail("Vishnu", "423456789011", DateUtil.parseDate("1999-09-14"),
+				"BRPPV3218K", 100000, 10000, "self", 756678, new Bank("SBI", 756678, "public"));
+		when(authorisationClient.validate("valid-token")).thenReturn(Mono.just(true));
+		when(pensionerDetailsClient.getPensionerDetailByAadhaar("423456789011")).thenReturn(Mono.just(details));
+
+		webTestClient.post().uri("/processPension").header("Authorization", "valid-token")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(new PensionerInput("423456789011")).exchange()
+				.expectStatus().isOk().expectBody().jsonPath("$.pensionAmount").isEqualTo(89500.0);
+	}
+
+	@Test
+	@DisplayName("Pensioner details are fetched once and then served from the pensioner cache")
+	void testProcessPension_cachedPensioner() {
+		PensionerDetail details = new PensionerDetail("Ravi", "423456789013", DateUtil.parseDate("1999-09-14"),
+				"BRPPR3218K", 50000, 5000, "family", 756679, new Bank("HDFC", 756679, "private"));
+		when(authorisationClient.validate("valid-token")).thenReturn(Mono.just(true));
+		when(pensionerDetailsClient.getPensionerDetailByAadhaar("423456789013")).thenReturn(Mono.just(details));
+
+		for (int i = 0; i < 2; i++) {
+			webTestClient.post().uri("/processPension").header("Authorization", "valid-token")
+					.contentType(MediaType.APPLICATION_JSON).bodyValue(new PensionerInput("423456789013")).exchange()
+					.expectStatus().isOk();
+		}
+		verify(pensionerDetailsClient, times(1)).getPensionerDetailByAadhaar("423456789013");
+	}
+
+	@Test
+	@DisplayName("Verify response when the pensioner detail service can not be reached")
+	void testProcessPension_serviceUnavailable() {
+		when(authorisationClient.validate("valid-token")).thenReturn(Mono.just(true));
+		when(pensionerDetailsClient.getPensionerDetailByAadhaar("423456789014"))
+				.thenReturn(Mono.error(new WebClientRequestException(new IOException("Connection refused"),
+						HttpMethod.GET, URI.create("http://PENSIONER-DETAIL-SERVICE"), new HttpHeaders())));
+
+		webTestClient.post().uri("/processPension").header("Authorization", "valid-token")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(new PensionerInput("423456789014")).exchange()
+				.expectStatus().isEqualTo(503);
+	}
+
+	@Test
+	@DisplayName("Verify response after sending post request with invalid token to /processPension")
+	void testProcessPension_withInvalidToken() {
+		when(authorisationClient.validate("invalid-token")).thenReturn(Mono.just(false));
+
+		webTestClient.post().uri("/processPension").header("Authorization", "invalid-token")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(new PensionerInput("423456789012")).exchange()
+				.expectStatus().isForbidden();
+	}
+
+	@Test
+	@DisplayName("Verify requests over the token's rate limit are rejected with 429")
+	void testProcessPension_rateLimited() {
+		String token = "rate-limited-token";
+		when(authorisationClient.validate(token)).thenReturn(Mono.just(false));
+
+		int sent = 0;
+		int status;
+		HttpHeaders headers;
+		do {
+			EntityExchangeResult<byte[]> result = webTestClient.post().uri("/processPension")
+					.header("Authorization", token).contentType(MediaType.APPLICATION_JSON)
+					.bodyValue(new PensionerInput("423456789015")).exchange().expectBody().returnResult();
+			status = result.getRawStatusCode();
+			headers = result.getResponseHeaders();
+			sent++;
+		} while (status != 429 && sent < 100);
+		assertEquals(429, status);
+		assertTrue(sent > 40);
+		assertNotNull(headers.getFirst(HttpHeaders.RETRY_AFTER));
+	}
+
+	@Test
+	@DisplayName("Verify response after sending post request with invalid data to /processPension")
+	void testProcessPension_withInvalidInput() {
+		webTestClient.post().uri("/processPension").header("Authorization", "valid-token")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(new PensionerInput("4234")).exchange()
+				.expectStatus().isBadRequest().expectBody().jsonPath("$.message").isEqualTo("Invalid Details");
+	}
+}
@@ -1,9 +1,17 @@
 package com.cts.processPension.repository;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
 
-import java.text.ParseException;
 
 import com.cts.processPension.model.Bank;
 import com.cts.processPension.model.PensionerDetail;
@@ -13,6 +21,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionResult;
 import com.cts.processPension.model.PensionerInput;
 import com.cts.processPension.util.DateUtil;
 
@@ -55,14 +64,14 @@ class PensionDetailsRepositoryTests {
 
 	@Test
 	@DisplayName("This method is responsible to test save() for pensioner details")
-	void testSaveForPensionerDetails() throws ParseException {
+	void testSaveForPensionerDetails() {
 		log.info("START - testSaveForPensionerDetails()");
 
 		PensionerInput pi_empty = new PensionerInput();
 		PensionerInput pi = new PensionerInput("123456789011");
 		Bank bank = new Bank("ICICI", 456678, "public");
 
-		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("23-11-1996"), "BRPPV3218K",
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1996-11-23"), "BRPPV3218K",
 				100000, 10000, "self", 456678,bank);
 
 		PensionerDetail savedDetails = pensionerDetailsRepository.save(details);
@@ -71,4 +80,69 @@ class PensionDetailsRepositoryTests {
 		
 		log.info("END - testSaveForPensionerDetails()");
 	}
+
+	@Test
+	@DisplayName("Upserts insert and then update pensioner details and their banks")
+	void testUpsertAll() {
+		PensionerDetail inserted = new PensionerDetail("Vishnu", "123456789041", DateUtil.parseDate("1996-11-23"),
+				"BRPPV3218K", 100000, 10000, "self", 456641, new Bank("ICICI", 456641, "public"));
+		assertTrue(inserted.isNew());
+		pensionerDetailsRepository.upsertAll(Collections.singletonList(inserted));
+		assertFalse(inserted.isNew());
+		assertFalse(inserted.getBank().isNew());
+
+		PensionerDetail updated = new PensionerDetail("Vishnu", "123456789041", DateUtil.parseDate("1996-11-23"),
+				"BRPPV3218K", 200000, 10000, "family", 456641, new Bank("HDFC", 456641, "private"));
+		updated.setFetchedAt(Instant.parse("2026-10-01T10:15:30Z"));
+		pensionerDetailsRepository.upsertAll(Collections.singletonList(updated));
+
+		PensionerDetail stored = pensionerDetailsRepository.findById("123456789041").orElseThrow();
+		assertFalse(stored.isNew());
+		assertEquals(200000, stored.getSalary());
+		assertEquals("family", stored.getPensionType());
+		assertEquals(DateUtil.parseDate("1996-11-23"), stored.getDateOfBirth());
+		assertEquals(Instant.parse("2026-10-01T10:15:30Z"), stored.getFetchedAt());
+		assertEquals("HDFC", stored.getBank().getBankName());
+		assertEquals("private", stored.getBank().getBankType());
+	}
+
+	@Test
+	@DisplayName("Upserts insert and then update pension amounts")
+	void testUpsertAllAmounts() {
+		pensionDetailsRepository
+				.upsertAll(Arrays.asList(new PensionAmountDetail("123456789061", 90000.0, 500.0, 89500.0, "first")));
+		pensionDetailsRepository
+				.upsertAll(Arrays.asList(new PensionAmountDetail("123456789061", 95000.0, 550.0, 94450.0, "second")));
+
+		PensionAmountDetail stored = pensionDetailsRepository.findById("123456789061").get();
+		assertEquals(94450.0, stored.getTotalAmount());
+		assertEquals(550.0, stored.getBankServiceCharge());
+		assertEquals("second", stored.getFingerprint());
+	}
+
+	@Test
+	@DisplayName("Pension results are filtered and paged by aadhaar number")
+	void testFindResults() {
+		List<PensionerDetail> pensioners = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			String aadhaarNumber = "12345678905" + i;
+			pensioners.add(new PensionerDetail("Vishnu", aadhaarNumber, DateUtil.parseDate("1996-11-23"), "BRPPV3218K",
+					100000, 10000, i < 4 ? "self" : "family", 456650 + i, new Bank("Keyset Bank", 456650 + i, "public")));
+			pensionDetailsRepository.save(new PensionAmountDetail(aadhaarNumber, 90000.0, 500.0, 89500.0 + i, null));
+		}
+		pensionerDetailsRepository.upsertAll(pensioners);
+
+		List<PensionResult> first = pensionDetailsRepository.findResults("self", "public", "Keyset Bank", null, 3);
+		assertEquals(Arrays.asList("123456789050", "123456789051", "123456789052"),
+				first.stream().map(PensionResult::getAadhaarNumber).collect(Collectors.toList()));
+		assertEquals("Keyset Bank", first.get(0).getBankName());
+		assertEquals(89500.0, first.get(0).getTotalAmount());
+
+		List<PensionResult> second = pensionDetailsRepository.findResults("self", "public", "Keyset Bank",
+				"123456789052", 3);
+		assertEquals(1, second.size());
+		assertEquals("123456789053", second.get(0).getAadhaarNumber());
+		assertTrue(pensionDetailsRepository.findResults("self", "private", "Keyset Bank", null, 3).isEmpty());
+		assertEquals(4, pensionDetailsRepository.findResults("SELF", "Public", "Keyset Bank", null, 10).size());
+	}
 }
@@ -0,0 +1,116 @@
+package com.cts.processPension.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.util.DateUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Test class for the write-behind pensioner detail writer, with a queue small
+ * enough to overflow
+ *
+ */
+@SpringBootTest(properties = { "pension.write-behind.enabled=true", "pension.write-behind.queue-capacity=2",
+		"pension.write-behind.offer-timeout=0ms", "pension.write-behind.flush-interval=50ms" })
+class PensionerDetailWriterTest {
+
+	@Autowired
+	private PensionerDetailWriter pensionerDetailWriter;
+
+	@Autowired
+	private PensionerDetailsRepository pensionerDetailsRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	@DisplayName("Queued pensioner details are saved on flush")
+	void testSaveAllAndFlush() {
+		PensionerDetail self = new PensionerDetail("Vishnu", "223456789011", DateUtil.parseDate("1996-11-23"),
+				"BRPPV3218K", 100000, 10000, "self", 556678, new Bank("ICICI", 556678, "public"));
+		PensionerDetail family = new PensionerDetail("Vishnu", "223456789011", DateUtil.parseDate("1996-11-23"),
+				"BRPPV3218K", 100000, 10000, "family", 556678, new Bank("ICICI", 556678, "public"));
+		PensionerDetail other = new PensionerDetail("Ravi", "223456789012", DateUtil.parseDate("1996-11-23"),
+				"BRPPR3218K", 50000, 5000, "self", 556679, new Bank("HDFC", 556679, "private"));
+
+		pensionerDetailWriter.saveAll(Arrays.asList(self, family, other));
+		pensionerDetailWriter.flush();
+
+		assertTrue(pensionerDetailsRepository.existsById("223456789011"));
+		assertTrue(pensionerDetailsRepository.existsById("223456789012"));
+	}
+
+	@Test
+	@DisplayName("The background writer saves the latest snapshot, the caller saves what overflows the queue")
+	void testBackgroundWriteAndOverflow() throws InterruptedException {
+		double rejectedBefore = meterRegistry.counter("pensioner.writer.rejected").count();
+		List<PensionerDetail> pensionerDetails = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			pensionerDetails.add(new PensionerDetail("Ravi", "3234567890" + (10 + i), DateUtil.parseDate("1996-11-23"),
+					"BRPPR3218K", 50000, 5000, "self", 656600 + i, new Bank("HDFC", 656600 + i, "private")));
+		}
+		pensionerDetailWriter.saveAll(pensionerDetails);
+		// a newer snapshot of the first pensioner
+		pensionerDetailWriter.save(new PensionerDetail("Ravi Kumar", "323456789010", DateUtil.parseDate("1996-11-23"),
+				"BRPPR3218K", 60000, 6000, "family", 656600, new Bank("SBI", 656600, "public")));
+
+		// no flush, wait for the background writer
+		List<String> aadhaarNumbers = new ArrayList<>();
+		pensionerDetails.forEach(pensionerDetail -> aadhaarNumbers.add(pensionerDetail.getAadhaarNumber()));
+		for (int wait = 0; wait < 100 && (pensionerDetailsRepository.findAllById(aadhaarNumbers).size() < 20
+				|| !"family".equals(pensionType("323456789010"))); wait++) {
+			Thread.sleep(50);
+		}
+
+		assertEquals(20, pensionerDetailsRepository.findAllById(aadhaarNumbers).size());
+		PensionerDetail latest = pensionerDetailsRepository.findById("323456789010").get();
+		assertEquals("Ravi Kumar", latest.getName());
+		assertEquals("family", latest.getPensionType());
+		assertEquals(60000, latest.getSalary());
+		assertEquals("SBI", latest.getBank().getBankName());
+		assertTrue(meterRegistry.counter("pensioner.writer.rejected").count() > rejectedBefore);
+	}
+
+	@Test
+	@DisplayName("A snapshot failing on its own is dropped and counted, the rest of its batch is saved")
+	void testDroppedSnapshot() throws InterruptedException {
+		double droppedBefore = meterRegistry.counter("pensioner.writer.dropped").count();
+		PensionerDetail saved = new PensionerDetail("Ravi", "423456789011", DateUtil.parseDate("1996-11-23"),
+				"BRPPR3218K", 50000, 5000, "self", 756601, new Bank("HDFC", 756601, "private"));
+		// longer than the name column
+		PensionerDetail failing = new PensionerDetail(String.join("", Collections.nCopies(300, "R")), "423456789012",
+				DateUtil.parseDate("1996-11-23"), "BRPPR3218K", 50000, 5000, "self", 756602,
+				new Bank("HDFC", 756602, "private"));
+
+		pensionerDetailWriter.saveAll(Arrays.asList(saved, failing));
+		pensionerDetailWriter.flush();
+		// the background writer may have taken the batch before the flush
+		for (int wait = 0; wait < 100
+				&& meterRegistry.counter("pensioner.writer.dropped").count() == droppedBefore; wait++) {
+			Thread.sleep(50);
+		}
+
+		assertTrue(pensionerDetailsRepository.existsById("423456789011"));
+		assertFalse(pensionerDetailsRepository.existsById("423456789012"));
+		assertEquals(droppedBefore + 1, meterRegistry.counter("pensioner.writer.dropped").count());
+	}
+
+	private String pensionType(String aadhaarNumber) {
+		return pensionerDetailsRepository.findById(aadhaarNumber).map(PensionerDetail::getPensionType).orElse(null);
+	}
+}
@@ -0,0 +1,52 @@
+package com.cts.processPension.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.util.DateUtil;
+
+/**
+ * Test cases for the schema migrations of the durable profile, run on an in
+ * memory database
+ *
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:migration_test")
+@ActiveProfiles("durable")
+class SchemaMigrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PensionerDetailsRepository pensionerDetailsRepository;
+
+	@Test
+	@DisplayName("Migrations create the schema validated by hibernate with the query indexes")
+	void testMigrations() {
+		assertEquals(3, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"success\" AND \"type\" = 'SQL'", Integer.class));
+
+		List<String> indexes = jdbcTemplate.queryForList(
+				"SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'PENSIONER_DETAIL'", String.class);
+		assertTrue(indexes.contains("IDX_PENSIONER_DETAIL_PAN"));
+		assertTrue(indexes.contains("IDX_PENSIONER_DETAIL_ACCOUNT_NUMBER"));
+		assertTrue(indexes.contains("IDX_PENSIONER_DETAIL_PENSION_TYPE"));
+
+		Bank bank = new Bank("SBI", 556682, "public");
+		pensionerDetailsRepository.save(new PensionerDetail("Vishnu", "523456789011", DateUtil.parseDate("1999-09-14"),
+				"BRPPV3218K", 100000, 10000, "self", 556682, bank));
+		assertEquals(DateUtil.parseDate("1999-09-14"),
+				pensionerDetailsRepository.findById("523456789011").get().getDateOfBirth());
+	}
+}
@@ -0,0 +1,57 @@
+package com.cts.processPension.rule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for the pension rule engine
+ *
+ */
+class PensionRuleEngineTest {
+
+	private final PensionRuleEngine pensionRuleEngine = new PensionRuleEngine();
+
+	@Test
+	@DisplayName("Default rules match the original pension calculation")
+	void testDefaultRules() {
+		assertEquals(100000 * 0.8 + 10000 - 500, apply("self", "public", 100000, 10000));
+		assertEquals(100000 * 0.8 + 10000 - 550, apply("self", "private", 100000, 10000));
+		assertEquals(100000 * 0.5 + 10000 - 500, apply("Family", "PUBLIC", 100000, 10000));
+		assertEquals(100000 * 0.5 + 10000 - 550, apply("family", "cooperative", 100000, 10000));
+		assertNull(pensionRuleEngine.find(RuleCodes.pensionType("unknown"), RuleCodes.bankType("public")));
+	}
+
+	@Test
+	@DisplayName("New pension category is added without code changes")
+	void testReplaceRules() {
+		List<PensionRuleDefinition> rules = new ArrayList<>(PensionRuleEngine.DEFAULT_RULES);
+		rules.add(new PensionRuleDefinition("disability", PensionRuleDefinition.ANY_BANK_TYPE, 0.6, 300));
+		pensionRuleEngine.replaceRules(rules);
+
+		assertEquals(1000 * 0.6 + 100 - 300, apply("disability", "private", 1000, 100));
+		assertEquals(1000 * 0.8 + 100 - 500, apply("self", "public", 1000, 100));
+	}
+
+	@Test
+	@DisplayName("Invalid rules are rejected and the current rules stay in use")
+	void testInvalidRules() {
+		List<PensionRuleDefinition> duplicates = Arrays.asList(new PensionRuleDefinition("self", "public", 0.8, 500),
+				new PensionRuleDefinition("self", "public", 0.9, 500));
+
+		assertThrows(IllegalArgumentException.class, () -> pensionRuleEngine.replaceRules(duplicates));
+		assertEquals(1000 * 0.8 + 100 - 500, apply("self", "public", 1000, 100));
+	}
+
+	private double apply(String pensionType, String bankType, double salary, double allowance) {
+		return pensionRuleEngine.find(RuleCodes.pensionType(pensionType), RuleCodes.bankType(bankType)).apply(salary,
+				allowance);
+	}
+}
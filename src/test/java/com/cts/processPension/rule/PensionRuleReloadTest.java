@@ -0,0 +1,85 @@
+package com.cts.processPension.rule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.cts.processPension.config.ManagementAccessConfig;
+import com.cts.processPension.feign.AuthorisationClient;
+
+/**
+ * Test cases for reloading the pension rules through /actuator/refresh, the
+ * rules file location and operator secret are arguments as a refresh keeps the
+ * command line but not the test properties
+ *
+ */
+@SpringBootTest(args = { "--spring.config.additional-location=optional:file:target/rule-reload-test/",
+		"--pension.management.operator-secret=operator-secret" })
+@AutoConfigureMockMvc
+class PensionRuleReloadTest {
+
+	private static final Path RULES = Paths.get("target/rule-reload-test/application.yml");
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PensionRuleEngine pensionRuleEngine;
+
+	@MockBean
+	private AuthorisationClient authorisationClient;
+
+	@AfterEach
+	void tearDown() throws IOException {
+		Files.deleteIfExists(RULES);
+	}
+
+	@Test
+	@DisplayName("Refresh with the operator secret loads the changed rules")
+	void testRefresh() throws Exception {
+		assertNull(find("pilot", "public"));
+
+		Files.createDirectories(RULES.getParent());
+		Files.write(RULES, String.join("\n", "pension:", "  rules:", "    - pension-type: self",
+				"      bank-type: '*'", "      salary-multiplier: 0.8", "      service-charge: 550",
+				"    - pension-type: pilot", "      bank-type: '*'", "      salary-multiplier: 0.7",
+				"      service-charge: 100", "").getBytes());
+		mockMvc.perform(post("/actuator/refresh").header(ManagementAccessConfig.OPERATOR_SECRET_HEADER, "operator-secret")).andExpect(status().isOk());
+
+		assertEquals(1000 * 0.7 + 100 - 100, find("pilot", "public").apply(1000, 100));
+		assertNull(find("family", "public"));
+	}
+
+	@Test
+	@DisplayName("Refresh without the operator secret is rejected, even with a valid access token")
+	void testRefreshForbidden() throws Exception {
+		Mockito.when(authorisationClient.validate("user-token")).thenReturn(true);
+
+		mockMvc.perform(post("/actuator/refresh")).andExpect(status().isForbidden());
+		mockMvc.perform(post("/actuator/refresh").header("Authorization", "user-token"))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(post("/actuator/refresh").header(ManagementAccessConfig.OPERATOR_SECRET_HEADER, "user-token"))
+				.andExpect(status().isForbidden());
+		Mockito.verify(authorisationClient, Mockito.never()).validate(Mockito.anyString());
+	}
+
+	private PensionRule find(String pensionType, String bankType) {
+		return pensionRuleEngine.find(RuleCodes.pensionType(pensionType), RuleCodes.bankType(bankType));
+	}
+}
@@ -0,0 +1,102 @@
+package com.cts.processPension.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.cts.processPension.exception.InvalidTokenException;
+import com.cts.processPension.exception.ServiceTimeoutException;
+import com.cts.processPension.exception.ServiceUnavailableException;
+import com.cts.processPension.feign.AuthorisationClient;
+import com.cts.processPension.feign.PensionerDetailsClient;
+import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.util.DateUtil;
+
+/**
+ * Class to test concurrent token validation and pensioner lookup
+ *
+ */
+@SpringBootTest(properties = "pension.parallel.timeout=1s")
+class ParallelPensionLookupTest {
+
+	@Autowired
+	private ParallelPensionLookup parallelPensionLookup;
+
+	@MockBean
+	private AuthorisationClient authorisationClient;
+
+	@MockBean
+	private PensionerDetailsClient pensionerDetailClient;
+
+	@Test
+	@DisplayName("Pension details are returned for a valid token")
+	void testGetPensionDetailsWithValidToken() {
+		PensionerDetail details = new PensionerDetail("Vishnu", "323456789011", DateUtil.parseDate("1999-09-14"),
+				"BRPPV3218K", 100000, 10000, "self", 656678, new Bank("SBI", 656678, "public"));
+		Mockito.when(authorisationClient.validate("valid-token")).thenReturn(true);
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar("323456789011")).thenReturn(details);
+
+		PensionDetail pensionDetail = parallelPensionLookup.getPensionDetails("valid-token",
+				new PensionerInput("323456789011"));
+
+		assertEquals(89500, pensionDetail.getPensionAmount());
+	}
+
+	@Test
+	@DisplayName("Pension details are discarded for an invalid token")
+	void testGetPensionDetailsWithInvalidToken() {
+		Mockito.when(authorisationClient.validate("invalid-token")).thenReturn(false);
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar("323456789012"))
+				.thenThrow(new IllegalStateException("must not reach the caller"));
+
+		assertThrows(InvalidTokenException.class,
+				() -> parallelPensionLookup.getPensionDetails("invalid-token", new PensionerInput("323456789012")));
+	}
+
+	@Test
+	@DisplayName("Slow validation times out")
+	void testGetPensionDetailsTimesOut() {
+		Mockito.when(authorisationClient.validate("slow-token")).thenAnswer(invocation -> {
+			Thread.sleep(5000);
+			return true;
+		});
+
+		assertThrows(ServiceTimeoutException.class,
+				() -> parallelPensionLookup.getPensionDetails("slow-token", new PensionerInput("323456789013")));
+	}
+
+	@Test
+	@DisplayName("A saturated executor fails the request as unavailable and cancels what was submitted")
+	void testGetPensionDetailsWithSaturatedExecutor() {
+		Object remoteCallExecutor = ReflectionTestUtils.getField(parallelPensionLookup, "remoteCallExecutor");
+		AsyncTaskExecutor saturated = Mockito.mock(AsyncTaskExecutor.class);
+		Future<Object> validation = Mockito.mock(Future.class);
+		Mockito.when(saturated.submit(ArgumentMatchers.<Callable<Object>>any())).thenReturn(validation)
+				.thenThrow(new TaskRejectedException("Queue is full"));
+		ReflectionTestUtils.setField(parallelPensionLookup, "remoteCallExecutor", saturated);
+		try {
+			assertThrows(ServiceUnavailableException.class,
+					() -> parallelPensionLookup.getPensionDetails("valid-token", new PensionerInput("323456789014")));
+			Mockito.verify(validation).cancel(true);
+		} finally {
+			ReflectionTestUtils.setField(parallelPensionLookup, "remoteCallExecutor", remoteCallExecutor);
+		}
+	}
+}
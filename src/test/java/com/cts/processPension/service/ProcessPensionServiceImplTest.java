@@ -6,8 +6,16 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-import java.text.ParseException;
-
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
@@ -16,14 +24,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
+import com.cts.processPension.cache.PensionerDetailCache;
 import com.cts.processPension.exception.NotFoundException;
 import com.cts.processPension.feign.PensionerDetailsClient;
 import com.cts.processPension.model.Bank;
+import com.cts.processPension.model.PensionAmountDetail;
+import com.cts.processPension.model.PensionBatchResult;
 import com.cts.processPension.model.PensionDetail;
 import com.cts.processPension.model.PensionerDetail;
 import com.cts.processPension.model.PensionerInput;
+import com.cts.processPension.repository.PensionDetailsRepository;
+import com.cts.processPension.repository.PensionerDetailsRepository;
 import com.cts.processPension.util.DateUtil;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * 
  * Class to test Service class functionality for process pension micro-service
@@ -38,13 +53,33 @@ class ProcessPensionServiceImplTest {
 	@MockBean
 	private PensionerDetailsClient pensionerDetailClient;
 
+	@Autowired
+	private PensionerDetailCache pensionerDetailCache;
+
+	@Autowired
+	private PensionerDetailsRepository pensionerDetailsRepository;
+
+	@Autowired
+	private PensionDetailsRepository pensionDetailsRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// every test starts with empty caches so the mocked feign client is called
+	@BeforeEach
+	void setup() {
+		pensionerDetailCache.invalidateAll();
+		pensionerDetailsRepository.deleteAll();
+		pensionDetailsRepository.deleteAll();
+	}
+
 	@Test
-	void testCheckDetailsForCorrectPensionerInput() throws ParseException {
+	void testCheckDetailsForCorrectPensionerInput() {
 		PensionerInput input = new PensionerInput("123456789011");
 
 		Bank bank = new Bank("SBI", 456678, "public");
 
-		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "self", 456678,bank);
 
 		assertTrue(processPensionService.checkdetails(input, details));
@@ -54,23 +89,23 @@ class ProcessPensionServiceImplTest {
 	}
 
 	@Test
-	void testCheckDetailsForIncorrectPensionerInput() throws ParseException {
+	void testCheckDetailsForIncorrectPensionerInput() {
 		PensionerInput input = new PensionerInput("123456789011");
 
 		Bank bank = new Bank("SBI", 456678, "public");
 
-		PensionerDetail details = new PensionerDetail("Vishnu","123456789012", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789012", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "self", 456678,bank);
 
 		assertFalse(processPensionService.checkdetails(input, details));
 	}
 
 	@Test
-	void testGettingPensionDetailByPassingPensionerDetailsForSelfPensionTypeAndPublicBank() throws ParseException {
+	void testGettingPensionDetailByPassingPensionerDetailsForSelfPensionTypeAndPublicBank() {
 
 		Bank bank = new Bank("SBI", 456678, "public");
 
-		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "self", 456678, bank);
 
 		PensionDetail actualDetail = processPensionService.calculatePensionAmount(details);
@@ -79,11 +114,11 @@ class ProcessPensionServiceImplTest {
 	}
 
 	@Test
-	void testGettingPensionDetailByPassingPensionerDetailsForFamilyPensionTypeAndPublicBank() throws ParseException {
+	void testGettingPensionDetailByPassingPensionerDetailsForFamilyPensionTypeAndPublicBank() {
 
 		Bank bank = new Bank("SBI", 456678, "public");
 
-		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "family", 456678,bank);
 
 		PensionDetail actualDetail = processPensionService.calculatePensionAmount(details);
@@ -92,11 +127,11 @@ class ProcessPensionServiceImplTest {
 	}
 
 	@Test
-	void testGettingPensionDetailByPassingPensionerDetailsForFamilyPensionTypeAndPrivateBank() throws ParseException {
+	void testGettingPensionDetailByPassingPensionerDetailsForFamilyPensionTypeAndPrivateBank() {
 
 		Bank bank = new Bank("SBI", 456678, "private");
 
-		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "family", 456678,bank);
 
 		PensionDetail actualDetail = processPensionService.calculatePensionAmount(details);
@@ -105,11 +140,11 @@ class ProcessPensionServiceImplTest {
 	}
 
 	@Test
-	void testGettingPensionDetailByPassingPensionerDetailsForSelfPensionTypeAndPrivateBank() throws ParseException {
+	void testGettingPensionDetailByPassingPensionerDetailsForSelfPensionTypeAndPrivateBank() {
 
 		Bank bank = new Bank("SBI", 456678, "private");
 
-		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "self", 456678, bank);
 
 		PensionDetail actualDetail = processPensionService.calculatePensionAmount(details);
@@ -117,39 +152,33 @@ class ProcessPensionServiceImplTest {
 		assertEquals(89450, actualDetail.getPensionAmount());
 	}
 
-	/**
-	 * Throws ParseException
-	 */
 	@Test
 	@DisplayName("Method to test getPensionDetails() method")
-	void testGetPensionDetailsForSelf() throws ParseException {
+	void testGetPensionDetailsForSelf() {
 		PensionerInput pensionerInput = new PensionerInput("123456789011");
 
 		Bank bank = new Bank("SBI", 456678, "public");
 
-		PensionerDetail detailsSelf = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail detailsSelf = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "self", 456678,bank);
 
 		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar(pensionerInput.getAadhaarNumber()))
 				.thenReturn(detailsSelf);
 
-		PensionDetail pensionDetailSelf = processPensionService.getPensionDetails(pensionerInput);
+		PensionDetail pensionDetailSelf = processPensionService.getPensionDetails(null, pensionerInput);
 
 		assertEquals(89500, pensionDetailSelf.getPensionAmount());
 		assertNotNull(pensionDetailSelf);
 	}
 
-	/**
-	 * Throws ParseException
-	 */
 	@DisplayName("Method to test getPensionDetails() method")
 	@Test
-	void testGetPensionDetailsForFamily() throws ParseException {
+	void testGetPensionDetailsForFamily() {
 		PensionerInput pensionerInput = new PensionerInput("123456789011");
 
 		Bank bank = new Bank("SBI", 456678, "public");
 
-		PensionerDetail detailsFamily = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("14-09-1999"), "BRPPV3218K",
+		PensionerDetail detailsFamily = new PensionerDetail("Vishnu","123456789011", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
 				100000, 10000, "family", 456678,bank);
 
 		// mock the feign client
@@ -157,10 +186,124 @@ class ProcessPensionServiceImplTest {
 				.thenReturn(detailsFamily);
 
 		// get the actual result
-		PensionDetail pensionDetailFamily = processPensionService.getPensionDetails(pensionerInput);
+		PensionDetail pensionDetailFamily = processPensionService.getPensionDetails(null, pensionerInput);
 
 		// test cases
 		assertEquals(59500, pensionDetailFamily.getPensionAmount());
 		assertNotNull(pensionDetailFamily);
 	}
-}
\ No newline at end of file
+
+	@Test
+	@DisplayName("Repeated lookups are served from the cache")
+	void testGetPensionDetailsIsCached() {
+		PensionerInput pensionerInput = new PensionerInput("123456789013");
+
+		Bank bank = new Bank("SBI", 456679, "public");
+
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789013", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
+				100000, 10000, "self", 456679, bank);
+
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar(pensionerInput.getAadhaarNumber()))
+				.thenReturn(details);
+
+		processPensionService.getPensionDetails(null, pensionerInput);
+		pensionerDetailCache.invalidateAll();
+		processPensionService.getPensionDetails(null, pensionerInput);
+		PensionDetail pensionDetail = processPensionService.getPensionDetails(null, pensionerInput);
+
+		// first call hits the feign client, second the database and third the memory cache
+		Mockito.verify(pensionerDetailClient, Mockito.times(1)).getPensionerDetailByAadhaar("123456789013");
+		assertEquals(89500, pensionDetail.getPensionAmount());
+	}
+
+	@Test
+	@DisplayName("Pension amounts are stored and recalculated when the pensioner details change")
+	void testGetPensionDetailsIsMemoized() {
+		PensionerInput pensionerInput = new PensionerInput("123456789016");
+
+		Bank bank = new Bank("SBI", 456681, "public");
+
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789016", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
+				100000, 10000, "self", 456681, bank);
+
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar(pensionerInput.getAadhaarNumber()))
+				.thenReturn(details);
+
+		processPensionService.getPensionDetails(null, pensionerInput);
+		PensionAmountDetail stored = pensionDetailsRepository.findById("123456789016").get();
+		assertEquals(90000, stored.getPensionAmount());
+		assertEquals(500, stored.getBankServiceCharge());
+		assertEquals(89500, stored.getTotalAmount());
+
+		// unchanged details reuse the stored amount
+		assertEquals(89500, processPensionService.getPensionDetails(null, pensionerInput).getPensionAmount());
+		assertEquals(stored.getFingerprint(), pensionDetailsRepository.findById("123456789016").get().getFingerprint());
+
+		// a raise changes the fingerprint and the amount is recalculated
+		PensionerDetail raised = new PensionerDetail("Vishnu","123456789016", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
+				110000, 10000, "self", 456681, bank);
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar(pensionerInput.getAadhaarNumber()))
+				.thenReturn(raised);
+		pensionerDetailCache.invalidateAll();
+		pensionerDetailsRepository.deleteAll();
+
+		assertEquals(97500, processPensionService.getPensionDetails(null, pensionerInput).getPensionAmount());
+		assertEquals(97500, pensionDetailsRepository.findById("123456789016").get().getTotalAmount());
+	}
+
+	@Test
+	@DisplayName("Concurrent lookups of the same pensioner share one remote call")
+	void testConcurrentLookupsAreCoalesced() throws Exception {
+		PensionerInput pensionerInput = new PensionerInput("123456789018");
+
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789018", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
+				100000, 10000, "self", 456683, new Bank("SBI", 456683, "public"));
+
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar(pensionerInput.getAadhaarNumber()))
+				.thenAnswer(invocation -> {
+					release.await(5, TimeUnit.SECONDS);
+					return details;
+				});
+		double coalescedBefore = meterRegistry.counter("pension.lookup.coalesced", "lookup", "pensioner-detail").count();
+
+		ExecutorService callers = Executors.newFixedThreadPool(8);
+		List<Future<PensionDetail>> results = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			results.add(callers.submit(() -> processPensionService.getPensionDetails(null, pensionerInput)));
+		}
+		// let every caller reach the lookup before the remote call returns
+		Thread.sleep(500);
+		release.countDown();
+		for (Future<PensionDetail> result : results) {
+			assertEquals(89500, result.get(5, TimeUnit.SECONDS).getPensionAmount());
+		}
+		callers.shutdown();
+
+		Mockito.verify(pensionerDetailClient, Mockito.times(1)).getPensionerDetailByAadhaar("123456789018");
+		assertEquals(7, meterRegistry.counter("pension.lookup.coalesced", "lookup", "pensioner-detail").count() - coalescedBefore);
+	}
+
+	@Test
+	@DisplayName("Method to test getPensionDetailsBatch() method")
+	void testGetPensionDetailsBatch() {
+		Bank bank = new Bank("SBI", 456680, "private");
+
+		PensionerDetail details = new PensionerDetail("Vishnu","123456789014", DateUtil.parseDate("1999-09-14"), "BRPPV3218K",
+				100000, 10000, "family", 456680, bank);
+
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar("123456789014")).thenReturn(details);
+		Mockito.when(pensionerDetailClient.getPensionerDetailByAadhaar("123456789015"))
+				.thenReturn(new PensionerDetail());
+
+		List<PensionBatchResult> results = processPensionService.getPensionDetailsBatch(null, Arrays.asList(
+				new PensionerInput("123456789014"), new PensionerInput("1234"), new PensionerInput("123456789015")));
+
+		assertEquals(3, results.size());
+		assertEquals(59450, results.get(0).getPensionDetail().getPensionAmount());
+		assertEquals("Aadhaar Number is in invalid format", results.get(1).getErrorMessage());
+		assertEquals("Details entered are incorrect", results.get(2).getErrorMessage());
+		assertTrue(pensionerDetailsRepository.existsById("123456789014"));
+		assertTrue(pensionDetailsRepository.existsById("123456789014"));
+	}
+}
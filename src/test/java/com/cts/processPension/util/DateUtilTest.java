@@ -0,0 +1,71 @@
+package com.cts.processPension.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.cts.processPension.model.PensionDetail;
+import com.cts.processPension.model.PensionerDetail;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Test cases for the date utility and its JSON serializers
+ *
+ */
+class DateUtilTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	@DisplayName("Dates are parsed from ISO text only and cached")
+	void testParseDate() {
+		LocalDate date = LocalDate.of(1999, 9, 14);
+		assertEquals(date, DateUtil.parseDate("1999-09-14"));
+		assertSame(DateUtil.parseDate("1999-09-14"), DateUtil.parseDate("1999-09-14"));
+		assertSame(DateUtil.parseDate("1999-09-14"), DateUtil.of(1999, 9, 14));
+		assertEquals(LocalDate.of(1850, 2, 28), DateUtil.parseDate("1850-02-28"));
+		assertEquals(LocalDate.of(2000, 2, 29), DateUtil.parseDate("2000-02-29"));
+		assertEquals(date, DateUtil.parseDate("x1999-09-14".toCharArray(), 1, 10));
+
+		assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("1999-02-29"));
+		assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("1999-13-01"));
+		assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("19x9-09-14"));
+		assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("1999-9-14"));
+		assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("14/09/1999"));
+		assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("14-09-1999"));
+		assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("1999-09-14T00:00:00.000+00:00"));
+	}
+
+	@Test
+	@DisplayName("Formatted dates are cached")
+	void testFormat() {
+		LocalDate date = LocalDate.of(1960, 1, 2);
+		assertEquals("1960-01-02", DateUtil.format(date));
+		assertEquals("02/01/1960", DateUtil.formatDisplay(date));
+		assertSame(DateUtil.formatDisplay(date), DateUtil.formatDisplay(LocalDate.of(1960, 1, 2)));
+		assertEquals("0999-12-31", DateUtil.format(LocalDate.of(999, 12, 31)));
+		assertEquals("31/12/0999", DateUtil.formatDisplay(LocalDate.of(999, 12, 31)));
+	}
+
+	@Test
+	@DisplayName("Pensioner dates are read as text or epoch milliseconds and written in their format")
+	void testJson() throws Exception {
+		PensionerDetail fromText = objectMapper.readValue("{\"dateOfBirth\":\"1999-09-14\"}", PensionerDetail.class);
+		PensionerDetail fromMillis = objectMapper.readValue("{\"dateOfBirth\":937267200000}", PensionerDetail.class);
+		assertEquals(LocalDate.of(1999, 9, 14), fromText.getDateOfBirth());
+		assertEquals(LocalDate.of(1999, 9, 14), fromMillis.getDateOfBirth());
+		assertEquals("1999-09-14",
+				objectMapper.readTree(objectMapper.writeValueAsString(fromText)).get("dateOfBirth").asText());
+
+		PensionDetail pensionDetail = new PensionDetail("Vishnu", fromText.getDateOfBirth(), "BRPPV3218K", "self",
+				89500);
+		assertEquals("14/09/1999",
+				objectMapper.readTree(objectMapper.writeValueAsString(pensionDetail)).get("dateOfBirth").asText());
+	}
+}
@@ -0,0 +1,75 @@
+package com.cts.processPension.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test cases for coalescing concurrent loads
+ *
+ */
+class SingleFlightTest {
+
+	private final AtomicInteger coalesced = new AtomicInteger();
+
+	private final SingleFlight<String, String> singleFlight = new SingleFlight<>(coalesced::incrementAndGet);
+
+	@Test
+	@DisplayName("A loader failing with an error releases its waiters and the key")
+	void testLoaderError() throws Exception {
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch fail = new CountDownLatch(1);
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.run("key", () -> {
+			loading.countDown();
+			await(fail);
+			throw new StackOverflowError();
+		}));
+		loading.await(5, TimeUnit.SECONDS);
+		CompletableFuture<String> waiter = CompletableFuture.supplyAsync(() -> singleFlight.run("key", () -> "again"));
+		while (coalesced.get() == 0 && !waiter.isDone()) {
+			Thread.sleep(1);
+		}
+		fail.countDown();
+
+		assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+		assertEquals(StackOverflowError.class,
+				assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS)).getCause().getClass());
+		assertEquals(0, singleFlight.size());
+		assertEquals("loaded", singleFlight.run("key", () -> "loaded"));
+	}
+
+	@Test
+	@DisplayName("Asynchronous loads of the same key are shared with blocking ones until they complete")
+	void testRunAsync() throws Exception {
+		CompletableFuture<String> loading = new CompletableFuture<>();
+		CompletableFuture<String> first = singleFlight.runAsync("key", () -> loading);
+		CompletableFuture<String> second = singleFlight.runAsync("key", () -> CompletableFuture.completedFuture("again"));
+		CompletableFuture<String> blocking = CompletableFuture.supplyAsync(() -> singleFlight.run("key", () -> "again"));
+		while (coalesced.get() < 2) {
+			Thread.sleep(1);
+		}
+		loading.complete("loaded");
+
+		assertEquals("loaded", first.get(5, TimeUnit.SECONDS));
+		assertEquals("loaded", second.get(5, TimeUnit.SECONDS));
+		assertEquals("loaded", blocking.get(5, TimeUnit.SECONDS));
+		assertEquals(0, singleFlight.size());
+		assertEquals("loaded again",
+				singleFlight.runAsync("key", () -> CompletableFuture.completedFuture("loaded again")).get());
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}